@@ -0,0 +1,35 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.State;
+
+/**
+ * The BenchmarkPositions class contains the fixed positions the benchmarks run on, so that results of different
+ * revisions are comparable. The midgame position was reached by random moves from the initial position.
+ */
+public final class BenchmarkPositions {
+    public static final String OPENING = "opening";
+    public static final String MIDGAME = "midgame";
+    public static final String ENDGAME = "endgame";
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Returns the position with the given name.
+     *
+     * @param name {@link #OPENING}, {@link #MIDGAME} or {@link #ENDGAME}
+     * @return the state of the position
+     */
+    public static State get(String name) {
+        switch (name) {
+            case OPENING:
+                return new State();
+            case MIDGAME:
+                return new State(new int[]{1, 0, 3, 0, 8, 4, 18, 0, 0, 0, 0, 18}, 4, 16, true);
+            case ENDGAME:
+                return new State(new int[]{2, 1, 0, 3, 1, 1, 3, 0, 2, 5, 1, 3}, 26, 24, true);
+            default:
+                throw new IllegalArgumentException("Unknown position: " + name);
+        }
+    }
+}
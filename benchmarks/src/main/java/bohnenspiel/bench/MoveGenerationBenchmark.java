@@ -0,0 +1,73 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.Perft;
+import bohnenspiel.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures move generation and making a move, both through {@link bohnenspiel.State} and on packed positions, and a
+ * sequential {@link Perft} count of depth 4 that does both for every node.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenerationBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private bohnenspiel.State state;
+    private long low;
+    private long high;
+    private int action;
+    private final long[] out = new long[2];
+
+    @Setup
+    public void setup() {
+        state = BenchmarkPositions.get(position);
+        low = state.getLow();
+        high = state.getHigh();
+        action = Integer.numberOfTrailingZeros(state.getLegalMoveMask());
+    }
+
+    @Benchmark
+    public List<Integer> getPossibleActions() {
+        return state.getPossibleActions();
+    }
+
+    @Benchmark
+    public int legalMoveMask() {
+        return Position.legalMoveMask(low, high);
+    }
+
+    @Benchmark
+    public bohnenspiel.State applyAction() {
+        return state.applyAction(action);
+    }
+
+    @Benchmark
+    public long[] applyActionPacked() {
+        Position.applyAction(low, high, action, out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public long perft() {
+        return Perft.count(low, high, 4);
+    }
+}
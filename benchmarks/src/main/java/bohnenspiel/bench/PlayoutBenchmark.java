@@ -0,0 +1,49 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.Arguments;
+import bohnenspiel.FastRandom;
+import bohnenspiel.Playout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures random playouts per second from fixed positions, see {@link Playout}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayoutBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private long low;
+    private long high;
+    private Playout playout;
+
+    @Setup
+    public void setup() {
+        bohnenspiel.State state = BenchmarkPositions.get(position);
+        low = state.getLow();
+        high = state.getHigh();
+        playout = new Playout(new FastRandom(42));
+    }
+
+    @Benchmark
+    public boolean playout() {
+        return playout.run(low, high, Arguments.MAX_SIMULATION_DEPTH);
+    }
+}
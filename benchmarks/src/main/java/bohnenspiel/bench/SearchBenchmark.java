@@ -0,0 +1,64 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.Arguments;
+import bohnenspiel.FastRandom;
+import bohnenspiel.MCTS;
+import bohnenspiel.Node;
+import bohnenspiel.NodeArena;
+import bohnenspiel.SearchTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures complete single-threaded searches with a fixed number of iterations from fixed positions, on
+ * {@link Node} objects and on a {@link NodeArena}. The random generator is reseeded before every search.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    @Param({"10000"})
+    public int iterations;
+
+    private bohnenspiel.State state;
+    private NodeArena arena;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        state = BenchmarkPositions.get(position);
+        arena = new NodeArena(Arguments.ARENA_CAPACITY);
+    }
+
+    @Setup(Level.Invocation)
+    public void reseed() {
+        FastRandom.current().setSeed(42);
+    }
+
+    @Benchmark
+    public Node tree() {
+        return MCTS.runMCTS(new SearchTree(state, null, Arguments.MAX_TREE_NODES), iterations);
+    }
+
+    @Benchmark
+    public Node arena() {
+        return MCTS.runArenaMCTS(arena, state, iterations);
+    }
+}
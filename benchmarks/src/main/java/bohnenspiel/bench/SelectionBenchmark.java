@@ -0,0 +1,88 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.FastRandom;
+import bohnenspiel.MCTS;
+import bohnenspiel.Node;
+import bohnenspiel.SearchTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures UCT selection without changing the tree. The wide tree has every action expanded on its first
+ * {@link #WIDE_LEVELS} levels with random statistics, the deep tree is grown by a search and is several times deeper
+ * along its principal variation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SelectionBenchmark {
+    private static final int WIDE_LEVELS = 3;
+    private static final int DEEP_ITERATIONS = 50_000;
+
+    @Param({"wide", "deep"})
+    public String shape;
+
+    private Node root;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FastRandom random = new FastRandom(42);
+        FastRandom.current().setSeed(42);
+        root = new Node(BenchmarkPositions.get(BenchmarkPositions.OPENING));
+        if (shape.equals("wide")) {
+            expandAll(root, WIDE_LEVELS, random);
+        } else {
+            MCTS.runMCTS(new SearchTree(root, null, Integer.MAX_VALUE), DEEP_ITERATIONS);
+        }
+    }
+
+    private static int expandAll(Node node, int levels, FastRandom random) {
+        int visits = 0;
+        if (levels == 0 || node.isTerminal()) {
+            visits = 1 + random.nextInt(1000);
+            int winsRed = random.nextInt(visits + 1);
+            node.addStats(visits, winsRed, visits - winsRed);
+            return visits;
+        }
+        int winsRed = 0;
+        Node child;
+        while ((child = node.expand()) != null) {
+            int childVisits = expandAll(child, levels - 1, random);
+            visits += childVisits;
+            winsRed += random.nextInt(childVisits + 1);
+        }
+        node.addStats(visits, winsRed, visits - winsRed);
+        return visits;
+    }
+
+    /**
+     * Selects a child of the root.
+     */
+    @Benchmark
+    public Node selectChild() {
+        return root.select();
+    }
+
+    /**
+     * Descends from the root to the first node that is not fully expanded.
+     */
+    @Benchmark
+    public Node selectLeaf() {
+        return MCTS.selection(root);
+    }
+}
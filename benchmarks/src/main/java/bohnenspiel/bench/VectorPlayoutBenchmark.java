@@ -0,0 +1,77 @@
+package bohnenspiel.bench;
+
+import bohnenspiel.Arguments;
+import bohnenspiel.FastRandom;
+import bohnenspiel.Playout;
+import bohnenspiel.VectorPlayout;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the batch playouts of {@link VectorPlayout} with the scalar playouts of {@link Playout} from the same
+ * positions. An operation of {@link #vector} is a batch of {@link VectorPlayout#LANES} playouts, the secondary
+ * {@code playouts} result counts single playouts for both methods and is the figure to compare.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class VectorPlayoutBenchmark {
+    @Param({BenchmarkPositions.OPENING, BenchmarkPositions.MIDGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private long low;
+    private long high;
+    private Playout scalar;
+    private VectorPlayout vector;
+
+    /**
+     * Counts the single playouts of an iteration.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Playouts {
+        public long playouts;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            playouts = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        bohnenspiel.State state = BenchmarkPositions.get(position);
+        low = state.getLow();
+        high = state.getHigh();
+        scalar = new Playout(new FastRandom(42));
+        vector = new VectorPlayout(new FastRandom(42));
+    }
+
+    @Benchmark
+    public boolean scalar(Playouts counter) {
+        counter.playouts++;
+        return scalar.run(low, high, Arguments.MAX_SIMULATION_DEPTH);
+    }
+
+    @Benchmark
+    public int vector(Playouts counter) {
+        counter.playouts += VectorPlayout.LANES;
+        return vector.run(low, high, Arguments.MAX_SIMULATION_DEPTH);
+    }
+}
@@ -0,0 +1,357 @@
+package bohnenspiel;
+
+import java.util.Arrays;
+
+/**
+ * The AlphaBeta class is a Min-Max player with alpha-beta pruning on the packed positions of {@link Position}, used
+ * as a local opponent for the MCTS player.
+ *
+ * In the reference mode it reproduces the reference AI of the game server: a Min-Max search of depth
+ * {@link #REFERENCE_DEPTH} that evaluates positions by the difference of the scores and picks the first of the best
+ * actions in ascending order. Alpha-beta pruning does not change this choice, because an action only replaces the
+ * best one if it is strictly better.
+ *
+ * The strong mode searches with iterative deepening, either to a depth or until a time limit. It orders the actions
+ * by the best action stored in its transposition table and by the beans they capture, scores finished games by
+ * their result and looks up endgame positions in the {@link Tablebase}.
+ *
+ * A search does not allocate. Instances are not thread-safe, every thread needs its own.
+ */
+public class AlphaBeta {
+    public static final int REFERENCE_DEPTH = 4;
+
+    private static final int MAX_PLY = 64;
+    private static final int WIN = 10_000;
+    private static final int INFINITY = 1_000_000;
+    private static final int CHECK_INTERVAL = 1024; // nodes between two checks of the time limit, a power of two
+    // Bounds stored in the transposition table
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+
+    private final boolean reference;
+    private final Tablebase tablebase;
+    // Transposition table: the hash of the position and its packed entry (score, depth, bound and best action)
+    private final long[] tableKeys;
+    private final long[] tableEntries;
+    private final int tableMask;
+
+    // The child positions of each ply, 2 longs per action
+    private final long[] children = new long[MAX_PLY * 2 * Position.PITS];
+    // The actions of each ply in the order they are searched
+    private final int[] order = new int[MAX_PLY * 6];
+
+    private long nodes;
+    private long deadline;
+    private boolean aborted;
+    private int depth;
+    private int score;
+
+    private AlphaBeta(boolean reference, int tableSize) {
+        this.reference = reference;
+        this.tablebase = reference ? null : Tablebase.get();
+        int size = tableSize == 0 ? 0 : Integer.highestOneBit(tableSize);
+        this.tableKeys = new long[size];
+        this.tableEntries = new long[size];
+        this.tableMask = size - 1;
+    }
+
+    /**
+     * Creates a player that reproduces the reference AI of the game server, see {@link AlphaBeta}.
+     */
+    public static AlphaBeta reference() {
+        return new AlphaBeta(true, 0);
+    }
+
+    /**
+     * Creates a player with iterative deepening, move ordering and a transposition table.
+     *
+     * @param tableSize the number of entries of the transposition table, rounded down to a power of two
+     */
+    public static AlphaBeta strong(int tableSize) {
+        return new AlphaBeta(false, tableSize);
+    }
+
+    /**
+     * Returns the best action found by a search to the given depth. In the reference mode, use
+     * {@link #REFERENCE_DEPTH} to play like the reference AI.
+     *
+     * @param state the state to search, the game must not have ended
+     * @param maxDepth the depth of the search
+     * @return the best action
+     */
+    public int searchDepth(State state, int maxDepth) {
+        deadline = 0;
+        maxDepth = Math.min(maxDepth, MAX_PLY - 1);
+        return iterate(state.getLow(), state.getHigh(), reference ? maxDepth : 1, maxDepth);
+    }
+
+    /**
+     * Returns the best action found by iterative deepening within the given time. The action of the deepest
+     * finished iteration is returned, a search to depth 1 always finishes.
+     *
+     * @param state the state to search, the game must not have ended
+     * @param millis the time limit in milliseconds
+     * @return the best action
+     */
+    public int searchTime(State state, double millis) {
+        deadline = System.nanoTime() + (long) (millis * 1_000_000);
+        int action = iterate(state.getLow(), state.getHigh(), 1, MAX_PLY - 1);
+        deadline = 0;
+        return action;
+    }
+
+    private int iterate(long low, long high, int minDepth, int maxDepth) {
+        nodes = 0;
+        aborted = false;
+        int bestAction = -1;
+        for (int d = minDepth; d <= maxDepth; d++) {
+            long deadlineOfIteration = deadline;
+            // The first iteration always finishes, so that there is an action
+            if (bestAction < 0) {
+                deadline = 0;
+            }
+            int action = searchRoot(low, high, d);
+            deadline = deadlineOfIteration;
+            if (aborted) {
+                break;
+            }
+            bestAction = action;
+            depth = d;
+            if (Math.abs(score) > WIN - MAX_PLY || deadline != 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return bestAction;
+    }
+
+    private int searchRoot(long low, long high, int remaining) {
+        int count = orderActions(low, high, 0);
+        int alpha = -INFINITY;
+        int bestAction = -1;
+        for (int i = 0; i < count; i++) {
+            int action = order[i];
+            int value = -negamax(children[2 * action], children[2 * action + 1], remaining - 1, -INFINITY, -alpha, 1);
+            if (aborted) {
+                return bestAction;
+            }
+            if (value > alpha) {
+                alpha = value;
+                bestAction = action;
+            }
+        }
+        score = alpha;
+        store(low, high, remaining, alpha, EXACT, bestAction, 0);
+        return bestAction;
+    }
+
+    private int negamax(long low, long high, int remaining, int alpha, int beta, int ply) {
+        if ((++nodes & (CHECK_INTERVAL - 1)) == 0 && deadline != 0 && System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            return 0;
+        }
+
+        if (reference) {
+            if (remaining == 0 || Position.legalMoveMask(low, high) == 0) {
+                return evaluate(high);
+            }
+        } else {
+            if (Position.legalMoveMask(low, high) == 0) {
+                return result(low, high, ply);
+            }
+            if (tablebase != null && tablebase.contains(low, high)) {
+                int redMargin = Position.scoreRed(high) - Position.scoreBlue(high) + tablebase.value(low, high);
+                return Position.isRedToMove(high) == (redMargin >= 0) ? WIN - ply : -WIN + ply;
+            }
+            int decided = decided(high, ply);
+            if (decided != 0) {
+                return decided;
+            }
+            if (remaining == 0 || ply == MAX_PLY - 1) {
+                return evaluate(high);
+            }
+
+            long entry = probe(low, high);
+            if (entry != 0 && entryDepth(entry) >= remaining) {
+                int value = fromTable(entryScore(entry), ply);
+                int bound = entryBound(entry);
+                if (bound == EXACT || bound == LOWER && value >= beta || bound == UPPER && value <= alpha) {
+                    return value;
+                }
+            }
+        }
+
+        int count = orderActions(low, high, ply);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestAction = -1;
+        int offset = ply * 2 * Position.PITS;
+        for (int i = 0; i < count; i++) {
+            int action = order[ply * 6 + i];
+            int value = -negamax(children[offset + 2 * action], children[offset + 2 * action + 1], remaining - 1,
+                    -beta, -alpha, ply + 1);
+            if (value > best) {
+                best = value;
+                bestAction = action;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (!aborted) {
+            int bound = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+            store(low, high, remaining, best, bound, bestAction, ply);
+        }
+        return best;
+    }
+
+    /**
+     * Computes the child positions of a ply and writes the actions in search order to {@link #order}. The reference
+     * mode keeps the ascending order, the strong mode puts the action from the transposition table first and orders
+     * the others by the beans they capture.
+     */
+    private int orderActions(long low, long high, int ply) {
+        int offset = ply * 2 * Position.PITS;
+        int first = ply * 6;
+        int count = 0;
+        int captured = Position.scoreRed(high) + Position.scoreBlue(high);
+        long entry = reference ? 0 : probe(low, high);
+        int tableAction = entry == 0 ? -1 : entryAction(entry);
+        for (int moves = Position.legalMoveMask(low, high); moves != 0; moves &= moves - 1) {
+            int action = Integer.numberOfTrailingZeros(moves);
+            Position.applyAction(low, high, action, children, offset + 2 * action);
+            order[first + count++] = action;
+        }
+        if (reference) {
+            return count;
+        }
+        // Insertion sort by descending priority, stable for equal priorities
+        for (int i = 1; i < count; i++) {
+            int action = order[first + i];
+            int priority = priority(action, tableAction, captured, offset);
+            int j = i - 1;
+            while (j >= 0 && priority(order[first + j], tableAction, captured, offset) < priority) {
+                order[first + j + 1] = order[first + j];
+                j--;
+            }
+            order[first + j + 1] = action;
+        }
+        return count;
+    }
+
+    private int priority(int action, int tableAction, int captured, int offset) {
+        if (action == tableAction) {
+            return Integer.MAX_VALUE;
+        }
+        long childHigh = children[offset + 2 * action + 1];
+        return Position.scoreRed(childHigh) + Position.scoreBlue(childHigh) - captured;
+    }
+
+    /**
+     * Returns the difference of the scores from the view of the player to move.
+     */
+    private static int evaluate(long high) {
+        int difference = Position.scoreRed(high) - Position.scoreBlue(high);
+        return Position.isRedToMove(high) ? difference : -difference;
+    }
+
+    /**
+     * Returns the score of a finished game from the view of the player to move, see {@link Position#isRedWin(long, long)}.
+     * Earlier wins score higher.
+     */
+    private static int result(long low, long high, int ply) {
+        return Position.isRedToMove(high) == Position.isRedWin(low, high) ? WIN - ply : -WIN + ply;
+    }
+
+    /**
+     * Returns the score of a game that is decided because a player has more than half of the beans, 0 otherwise.
+     */
+    private static int decided(long high, int ply) {
+        int mover = Position.isRedToMove(high) ? Position.scoreRed(high) : Position.scoreBlue(high);
+        int opponent = Position.isRedToMove(high) ? Position.scoreBlue(high) : Position.scoreRed(high);
+        if (mover > Position.TOTAL_BEANS / 2) {
+            return WIN - ply;
+        }
+        if (opponent > Position.TOTAL_BEANS / 2) {
+            return -WIN + ply;
+        }
+        return 0;
+    }
+
+    private long probe(long low, long high) {
+        if (tableKeys.length == 0) {
+            return 0;
+        }
+        long hash = Zobrist.hash(low, high);
+        int slot = (int) hash & tableMask;
+        return tableKeys[slot] == hash ? tableEntries[slot] : 0;
+    }
+
+    private void store(long low, long high, int remaining, int value, int bound, int action, int ply) {
+        if (tableKeys.length == 0) {
+            return;
+        }
+        long hash = Zobrist.hash(low, high);
+        int slot = (int) hash & tableMask;
+        // Scores of won games are stored relative to the position, they are read back at other plies
+        int stored = value > WIN - MAX_PLY ? value + ply : value < -WIN + MAX_PLY ? value - ply : value;
+        tableKeys[slot] = hash;
+        // Bit 62 marks a used entry, so that an entry is never 0
+        tableEntries[slot] = 1L << 62 | (stored & 0xFFFFFFFFL) | (long) remaining << 32 | (long) bound << 40
+                | (long) (action + 1) << 44;
+    }
+
+    private static int fromTable(int stored, int ply) {
+        return stored > WIN - MAX_PLY ? stored - ply : stored < -WIN + MAX_PLY ? stored + ply : stored;
+    }
+
+    private static int entryScore(long entry) {
+        return (int) entry;
+    }
+
+    private static int entryDepth(long entry) {
+        return (int) (entry >>> 32 & 0xFF);
+    }
+
+    private static int entryBound(long entry) {
+        return (int) (entry >>> 40 & 0xF);
+    }
+
+    private static int entryAction(long entry) {
+        return (int) (entry >>> 44 & 0xF) - 1;
+    }
+
+    /**
+     * Clears the transposition table, so that the next search does not depend on the previous ones.
+     */
+    public void clear() {
+        Arrays.fill(tableKeys, 0);
+        Arrays.fill(tableEntries, 0);
+    }
+
+    /**
+     * Returns the number of positions visited by the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the depth of the deepest finished iteration of the last search.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the score of the last finished iteration from the view of the player to move.
+     */
+    public int getScore() {
+        return score;
+    }
+}
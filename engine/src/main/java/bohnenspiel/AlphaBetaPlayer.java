@@ -0,0 +1,54 @@
+package bohnenspiel;
+
+/**
+ * The AlphaBetaPlayer class chooses actions with {@link AlphaBeta}, either to a fixed depth or within a time limit.
+ */
+public class AlphaBetaPlayer implements Player {
+    private final AlphaBeta search;
+    private final int depth;
+    private final double millis;
+    private final String name;
+
+    private AlphaBetaPlayer(AlphaBeta search, int depth, double millis, String name) {
+        this.search = search;
+        this.depth = depth;
+        this.millis = millis;
+        this.name = name;
+    }
+
+    /**
+     * Creates a player that plays like the reference AI of the game server.
+     */
+    public static AlphaBetaPlayer reference() {
+        return new AlphaBetaPlayer(AlphaBeta.reference(), AlphaBeta.REFERENCE_DEPTH, 0, "reference");
+    }
+
+    /**
+     * Creates a player with the strong mode of {@link AlphaBeta} that searches to the given depth.
+     */
+    public static AlphaBetaPlayer withDepth(int depth) {
+        return new AlphaBetaPlayer(AlphaBeta.strong(Arguments.TRANSPOSITION_TABLE_SIZE), depth, 0, "alphabeta:" + depth);
+    }
+
+    /**
+     * Creates a player with the strong mode of {@link AlphaBeta} that searches for the given time per move.
+     */
+    public static AlphaBetaPlayer withTime(double millis) {
+        return new AlphaBetaPlayer(AlphaBeta.strong(Arguments.TRANSPOSITION_TABLE_SIZE), 0, millis, "alphabeta:" + (int) millis + "ms");
+    }
+
+    @Override
+    public int chooseAction(State state) {
+        return millis > 0 ? search.searchTime(state, millis) : search.searchDepth(state, depth);
+    }
+
+    @Override
+    public void newGame() {
+        search.clear();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,31 @@
+package bohnenspiel;
+
+/**
+ * The Arguments class represents the hyperparameters for the MCTS algorithm.
+ */
+public class Arguments {
+    //public static final int NUM_MCTS_SEARCHES = 2900; // number of MCTS searches
+    public static final int MAX_SIMULATION_DEPTH = 50; // maximum depth of the simulation
+    public static final double MAX_SIMULATION_TIME = 2500; // time budget of a move in Milliseconds, adjusted by the TimeManager
+    public static final double MOVE_TIME_LIMIT = 3000; // time limit of the server for a move in Milliseconds
+    public static final double TIME_SAFETY_MARGIN = 300; // time in Milliseconds kept free for the network and garbage collection
+    public static final double C = Math.sqrt(2); // exploration constant
+    public static final double C_PUCT = 2.0; // exploration constant of the PUCT formula, used with the priors of a network
+    public static final boolean USE_STARVATION = true; // use starvation mechanism
+    public static final SearchMode SEARCH_MODE = SearchMode.valueOf(System.getProperty("mcts.mode", SearchMode.ROOT_PARALLEL.name())); // how the threads are used, set with -Dmcts.mode=TREE_PARALLEL
+    public static final int VIRTUAL_LOSS = 3; // visits without wins added to each node on the path of a running tree-parallel simulation
+    public static final int MAX_TREE_DEPTH = 200; // maximum length of a selected path, transpositions may form cycles
+    public static final int MAX_TREE_NODES = Integer.getInteger("mcts.maxNodes", 2_000_000); // node budget of the tree kept between moves
+    public static final int TRANSPOSITION_TABLE_SIZE = Integer.getInteger("mcts.ttSize", 1 << 20); // entries of the transposition table, 0 disables it
+    public static final TranspositionTable.ReplacementPolicy TRANSPOSITION_REPLACEMENT = TranspositionTable.ReplacementPolicy.valueOf(System.getProperty("mcts.ttReplacement", "LEAST_VISITED")); // which entry of a full bucket is overwritten
+    public static final int ARENA_CAPACITY = Integer.getInteger("mcts.arenaNodes", 1 << 20); // maximum number of nodes of the arena search
+    public static final boolean PONDER = Boolean.parseBoolean(System.getProperty("mcts.ponder", "true")); // keep searching during the opponent's turn
+    public static final String TABLEBASE_FILE = System.getProperty("mcts.tablebase", "endgame.tb"); // endgame tablebase, see TablebaseGenerator, ignored if missing
+    public static final String NETWORK_FILE = System.getProperty("mcts.network", "network.bin"); // policy/value network evaluating the leaves instead of playouts, see Network, ignored if missing
+    public static final int NETWORK_BATCH = Integer.getInteger("mcts.networkBatch", 64); // maximum number of leaves evaluated at once, see NetworkEvaluator
+    public static final String OPENING_BOOK_FILE = System.getProperty("mcts.book", "opening.book"); // opening book, see OpeningBookBuilder, ignored if missing
+    public static final String METRICS_FILE = System.getProperty("mcts.metrics", ""); // per-move search metrics, CSV if it ends in .csv and JSON lines otherwise, see MetricsLog, empty disables it
+    public static final int WARMUP_MILLIS = Integer.getInteger("mcts.warmup", 2000); // budget of the search warm-up before the first game, see Warmup, 0 disables it
+    public static final int THREADS = Integer.getInteger("mcts.threads", Runtime.getRuntime().availableProcessors()); // number of search threads, set with -Dmcts.threads=N
+    public static final boolean VECTOR_PLAYOUTS = Boolean.getBoolean("mcts.vectorPlayouts"); // simulate a batch of playouts per leaf with the Vector API, needs --add-modules jdk.incubator.vector, see VectorPlayout
+}
@@ -0,0 +1,381 @@
+package bohnenspiel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The EngineServer class keeps one engine running and lets other programs drive it through a line protocol, in the
+ * spirit of UCI, over stdin and stdout or a local socket. The search tree, the transposition table and the compiled
+ * code stay warm between commands, and a position that continues the previous one reuses its subtree.
+ *
+ * Fields are numbered 1 to 12 like on the game server. The commands are:
+ * <ul>
+ *     <li>{@code isready}: answers {@code readyok}</li>
+ *     <li>{@code newgame}: discards the tree</li>
+ *     <li>{@code position startpos [moves <field>...]} or
+ *     {@code position pits <12 pits> <red score> <blue score> <red|blue> [moves <field>...]}: sets the position</li>
+ *     <li>{@code go [movetime <millis>] [iterations <n>] [infinite]}: searches in the background and answers
+ *     {@code info ...} and {@code bestmove <field>}, without limits like a move of a game, see
+ *     {@link TimeManager#forMove(State)}</li>
+ *     <li>{@code stop}: ends the running search, which then answers as usual</li>
+ *     <li>{@code stats}: answers the visits of the root and its children, also during a search</li>
+ *     <li>{@code board}: answers the position</li>
+ *     <li>{@code quit}: ends the session</li>
+ * </ul>
+ * Invalid commands are answered with {@code error <message>}. The search uses the mode and threads of
+ * {@link Arguments}, except that {@code go iterations <n>} alone searches exactly n iterations on one thread of the
+ * kept tree, so that a budget can be reproduced. Combined with {@code movetime} or {@code infinite}, the iterations are
+ * only checked every {@link TimeManager#CHECK_INTERVAL} iterations, for each tree in root-parallel mode, so the search
+ * may run up to that many more. The {@code info} answer gives the iterations actually searched.
+ *
+ * Usage: {@code java bohnenspiel.EngineServer [port]}, without a port on stdin and stdout
+ */
+public class EngineServer {
+    private final Object lock = new Object();
+    private PrintWriter out;
+    private SearchTree tree;
+    // The running search, null if there is none
+    private Thread search;
+    private SearchLimits limits;
+
+    /**
+     * Main method of the engine server.
+     * @param args optionally the port to listen on, on the loopback address
+     * @throws IOException if the streams or the socket fail
+     */
+    public static void main(String[] args) throws IOException {
+        EngineServer engine = new EngineServer();
+        if (Arguments.WARMUP_MILLIS > 0) {
+            // Standard output carries the protocol
+            Warmup.run(Arguments.WARMUP_MILLIS).print(System.err);
+        }
+        if (args.length == 0) {
+            engine.serve(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            return;
+        }
+        try (ServerSocket server = new ServerSocket(Integer.parseInt(args[0]), 1, InetAddress.getLoopbackAddress())) {
+            System.out.println("Engine auf Port " + server.getLocalPort());
+            // One client at a time, the engine and its tree are kept for the next one
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    socket.setTcpNoDelay(true);
+                    engine.serve(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8),
+                            new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    System.out.println("Verbindung beendet: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates an engine at the initial position.
+     */
+    public EngineServer() {
+        newGame();
+    }
+
+    /**
+     * Reads commands until {@code quit} or the end of the input, a running search is stopped at the end.
+     *
+     * @param input the commands, one per line
+     * @param output receives the answers, flushed after every line
+     * @throws IOException if reading fails
+     */
+    public void serve(Reader input, Writer output) throws IOException {
+        out = new PrintWriter(new BufferedWriter(output));
+        BufferedReader reader = new BufferedReader(input);
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!execute(line.trim())) {
+                    break;
+                }
+            }
+        } finally {
+            stopSearch();
+        }
+    }
+
+    /**
+     * Executes one command.
+     *
+     * @param line the command
+     * @return false if the session should end
+     */
+    boolean execute(String line) {
+        String[] words = line.split("\\s+");
+        try {
+            switch (words[0]) {
+                case "":
+                    return true;
+                case "isready":
+                    send("readyok");
+                    return true;
+                case "newgame":
+                    stopSearch();
+                    newGame();
+                    return true;
+                case "position":
+                    stopSearch();
+                    setPosition(words);
+                    return true;
+                case "go":
+                    stopSearch();
+                    startSearch(words);
+                    return true;
+                case "stop":
+                    stopSearch();
+                    return true;
+                case "stats":
+                    send(stats());
+                    return true;
+                case "board":
+                    send(tree.getRoot().getState().toString().trim().replace("\n", " / "));
+                    return true;
+                case "quit":
+                    return false;
+                default:
+                    send("error unknown command " + words[0]);
+                    return true;
+            }
+        } catch (IllegalArgumentException e) {
+            send("error " + e.getMessage());
+            return true;
+        }
+    }
+
+    private void newGame() {
+        TranspositionTable table = Arguments.TRANSPOSITION_TABLE_SIZE > 0
+                ? new TranspositionTable(Arguments.TRANSPOSITION_TABLE_SIZE, Arguments.TRANSPOSITION_REPLACEMENT)
+                : null;
+        tree = new SearchTree(new State(), table, Arguments.MAX_TREE_NODES);
+    }
+
+    /**
+     * Sets the position and keeps the subtree of the current root if the position continues from it.
+     */
+    private void setPosition(String[] words) {
+        State state;
+        int next;
+        if (words.length > 1 && words[1].equals("startpos")) {
+            state = new State();
+            next = 2;
+        } else if (words.length >= 17 && words[1].equals("pits")) {
+            int[] board = new int[Position.PITS];
+            for (int i = 0; i < Position.PITS; i++) {
+                board[i] = parseInt(words[2 + i], 0, Position.TOTAL_BEANS);
+            }
+            state = new State(board, parseInt(words[14], 0, Position.TOTAL_BEANS), parseInt(words[15], 0, Position.TOTAL_BEANS),
+                    words[16].equals("red"));
+            next = 17;
+        } else {
+            throw new IllegalArgumentException("position needs startpos or pits");
+        }
+
+        List<State> states = new ArrayList<>();
+        List<Integer> actions = new ArrayList<>();
+        states.add(state);
+        if (next < words.length) {
+            if (!words[next].equals("moves")) {
+                throw new IllegalArgumentException("expected moves instead of " + words[next]);
+            }
+            for (int i = next + 1; i < words.length; i++) {
+                int action = parseInt(words[i], 1, Position.PITS) - 1;
+                if ((state.getLegalMoveMask() >>> action & 1) == 0) {
+                    throw new IllegalArgumentException("illegal move " + words[i]);
+                }
+                state = state.applyAction(action);
+                states.add(state);
+                actions.add(action);
+            }
+        }
+
+        // Follow the moves from the latest position that matches the current root
+        State current = tree.getRoot().getState();
+        for (int i = states.size() - 1; i >= 0; i--) {
+            if (states.get(i).equals(current)) {
+                for (int k = i; k < actions.size(); k++) {
+                    tree.follow(actions.get(k), states.get(k + 1));
+                }
+                tree.compact();
+                return;
+            }
+        }
+        tree.reset(state);
+    }
+
+    private void startSearch(String[] words) {
+        double millis = 0;
+        long iterations = Long.MAX_VALUE;
+        boolean infinite = false;
+        for (int i = 1; i < words.length; i++) {
+            switch (words[i]) {
+                case "movetime":
+                    millis = parseInt(i + 1 < words.length ? words[++i] : "", 1, Integer.MAX_VALUE);
+                    break;
+                case "iterations":
+                    iterations = parseInt(i + 1 < words.length ? words[++i] : "", 1, Integer.MAX_VALUE);
+                    break;
+                case "infinite":
+                    infinite = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown go option " + words[i]);
+            }
+        }
+        State state = tree.getRoot().getState();
+        if (state.isTerminal()) {
+            throw new IllegalArgumentException("the game has ended");
+        }
+        TimeManager budget;
+        if (millis > 0) {
+            budget = TimeManager.fixed(millis);
+        } else if (infinite || iterations < Long.MAX_VALUE) {
+            budget = null;
+        } else {
+            budget = TimeManager.forMove(state);
+        }
+
+        SearchLimits searchLimits = new SearchLimits(budget, iterations);
+        SearchTree searchTree = tree;
+        int visitsBefore = searchTree.getRoot().getVisitCount();
+        boolean exact = millis == 0 && !infinite && iterations < Long.MAX_VALUE;
+        int exactIterations = (int) Math.min(iterations, Integer.MAX_VALUE);
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            Node root = exact ? searchExactly(searchTree, exactIterations, searchLimits) : MCTS.search(searchTree, searchLimits);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            int searched = root.getVisitCount() - visitsBefore;
+            send(String.format("info iterations %d nodes %d time %.0f nps %.0f", searched, searchTree.getNodeCount(),
+                    seconds * 1000, searched / seconds));
+            send("bestmove " + (MCTS.getBestActionFromFinishedSimulationRootNode(root) + 1));
+        }, "engine-search");
+        thread.setDaemon(true);
+        synchronized (lock) {
+            limits = searchLimits;
+            search = thread;
+        }
+        thread.start();
+    }
+
+    /**
+     * Stops the running search, if any, and waits until it has answered.
+     */
+    private void stopSearch() {
+        Thread thread;
+        synchronized (lock) {
+            thread = search;
+            if (thread == null) {
+                return;
+            }
+            limits.stop();
+            search = null;
+            limits = null;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while stopping the search", e);
+        }
+    }
+
+    /**
+     * Searches the given number of iterations on the calling thread, a stop command ends the search between blocks of
+     * {@link TimeManager#CHECK_INTERVAL} iterations.
+     */
+    private static Node searchExactly(SearchTree tree, int iterations, SearchLimits limits) {
+        for (int done = 0; done < iterations && !limits.isStopped(); done += TimeManager.CHECK_INTERVAL) {
+            MCTS.runMCTS(tree, Math.min(TimeManager.CHECK_INTERVAL, iterations - done));
+        }
+        return tree.getRoot();
+    }
+
+    private String stats() {
+        Node root = tree.getRoot();
+        StringBuilder line = new StringBuilder("info visits ").append(root.getVisitCount())
+                .append(" nodes ").append(tree.getNodeCount());
+        if (root.isProven()) {
+            line.append(" proven ").append(root.isProvenDraw() ? "draw" : root.getProvenResult() ? "red" : "blue");
+        }
+        line.append(" children");
+        boolean redToMove = root.getState().getCurrentPlayer();
+        List<Node> children = root.getChildNodes();
+        for (int i = 0; i < children.size(); i++) {
+            Node child = children.get(i);
+            int visits = child.getVisitCount();
+            int wins = child.getSumWins(redToMove);
+            line.append(' ').append(root.getChildAction(i) + 1).append(':').append(visits).append(':')
+                    .append(String.format("%.3f", visits == 0 ? 0.0 : (double) wins / visits));
+        }
+        return line.toString();
+    }
+
+    private void send(String line) {
+        synchronized (lock) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    private static int parseInt(String word, int min, int max) {
+        try {
+            int value = Integer.parseInt(word);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("value out of range " + word);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("not a number " + word);
+        }
+    }
+
+    /**
+     * The SearchLimits class ends a search after an optional time budget, a number of iterations or a stop command,
+     * whichever comes first. Like every time manager it is only asked every {@link TimeManager#CHECK_INTERVAL}
+     * iterations.
+     */
+    static final class SearchLimits extends TimeManager {
+        private final TimeManager budget;
+        private final long maxIterations;
+        private volatile boolean stopped;
+
+        /**
+         * @param budget the time budget, or null to search without a time limit
+         * @param maxIterations the maximum number of iterations
+         */
+        SearchLimits(TimeManager budget, long maxIterations) {
+            super(Double.MAX_VALUE, Double.MAX_VALUE);
+            this.budget = budget;
+            this.maxIterations = maxIterations;
+        }
+
+        void stop() {
+            stopped = true;
+        }
+
+        boolean isStopped() {
+            return stopped;
+        }
+
+        @Override
+        public boolean shouldStop(int bestVisits, int secondVisits, int iterations, boolean forced) {
+            return stopped || iterations >= maxIterations
+                    || (budget != null && budget.shouldStop(bestVisits, secondVisits, iterations, forced));
+        }
+    }
+}
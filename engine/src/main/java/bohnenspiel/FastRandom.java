@@ -0,0 +1,77 @@
+package bohnenspiel;
+
+/**
+ * The FastRandom class is a small xorshift64* pseudo random number generator for the hot paths of the search.
+ * It is not thread-safe, every search thread uses its own instance, see {@link #current()}.
+ */
+public final class FastRandom {
+    private static final ThreadLocal<FastRandom> CURRENT = ThreadLocal.withInitial(() -> new FastRandom(System.nanoTime() ^ Thread.currentThread().getId()));
+
+    private long state;
+
+    /**
+     * Creates a generator with the given seed.
+     *
+     * @param seed the seed, any value is allowed
+     */
+    public FastRandom(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Returns the generator of the current thread.
+     */
+    public static FastRandom current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Resets the generator to the given seed.
+     * The seed is scrambled with a SplitMix64 step, so that similar seeds produce unrelated sequences.
+     *
+     * @param seed the seed, any value is allowed
+     */
+    public void setSeed(long seed) {
+        long z = seed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        // xorshift must never be in the all zero state
+        this.state = z == 0 ? 0x9E3779B97F4A7C15L : z;
+    }
+
+    /**
+     * Returns the next pseudo random long.
+     */
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Returns a pseudo random int between 0 (inclusive) and the bound (exclusive).
+     *
+     * @param bound the upper bound, must be positive
+     * @return the random int
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 32) * bound) >>> 32);
+    }
+
+    /**
+     * Returns the index of a uniformly chosen set bit of the mask.
+     *
+     * @param mask the bit mask, must not be 0
+     * @return the index of the chosen bit
+     */
+    public int nextSetBit(int mask) {
+        for (int skip = nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
+        }
+        return Integer.numberOfTrailingZeros(mask);
+    }
+}
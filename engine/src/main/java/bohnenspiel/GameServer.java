@@ -0,0 +1,291 @@
+package bohnenspiel;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The GameServer class is a local stand-in for the game server, so that {@link Main} can be tested and load-tested
+ * without the remote host. It implements the same endpoints, all answering with plain text:
+ * <ul>
+ *     <li>{@code /api/creategame/<name>}: creates a game with the red player and returns its ID</li>
+ *     <li>{@code /api/opengames}: the IDs of the games waiting for a second player, separated by ";"</li>
+ *     <li>{@code /api/joingame/<id>/<name>}: joins a game as the blue player, "1" on success and "0" otherwise</li>
+ *     <li>{@code /api/check/<id>/<name>}: "-3" while waiting for the second player, "-2" after the game ended, "-1"
+ *     if it is the player's turn before the first move, "0" if it is the opponent's turn before the first move,
+ *     otherwise the field (1 to 12) of the last move</li>
+ *     <li>{@code /api/state/<id>}: 0 while waiting for the second player, 1 while running, 2 after the game ended</li>
+ *     <li>{@code /api/statemsg/<id>}: a description of the state of the game</li>
+ *     <li>{@code /api/move/<id>/<name>/<field>}: plays the field (1 to 12) and returns a message</li>
+ * </ul>
+ * A player that takes longer than the time limit for a move loses the game. Optionally, the server joins every new
+ * game itself with the reference AI, see {@link AlphaBeta#reference()}.
+ *
+ * Usage: {@code java bohnenspiel.GameServer [port] [--reference]}
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 5000;
+    private static final String REFERENCE_NAME = "reference";
+
+    private final HttpServer server;
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final double timeLimitMillis;
+    private final boolean reference;
+
+    /**
+     * Creates a server on the given port, it does not accept requests before {@link #start()}.
+     *
+     * @param port the port, 0 for any free port
+     * @param timeLimitMillis the time limit for a move in milliseconds, 0 for no limit
+     * @param reference true to join every new game with the reference AI
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, double timeLimitMillis, boolean reference) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.timeLimitMillis = timeLimitMillis;
+        this.reference = reference;
+        server.createContext("/api/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "game-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Main method of the server.
+     * @param args optionally the port and "--reference" to play every game against the reference AI
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        boolean reference = false;
+        for (String arg : args) {
+            if (arg.equals("--reference")) {
+                reference = true;
+            } else {
+                port = Integer.parseInt(arg);
+            }
+        }
+        GameServer gameServer = new GameServer(port, Arguments.MOVE_TIME_LIMIT, reference);
+        gameServer.start();
+        System.out.println("Server läuft: " + gameServer.getUrl());
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Returns the base URL of the server, e.g., for {@link Main#server}.
+     */
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String[] parts = exchange.getRequestURI().getPath().split("/");
+        String response;
+        int status = 200;
+        try {
+            response = dispatch(parts);
+        } catch (RuntimeException e) {
+            status = 400;
+            response = String.valueOf(e.getMessage());
+        }
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // parts[0] is empty and parts[1] is "api"
+    private String dispatch(String[] parts) {
+        String endpoint = parts.length > 2 ? parts[2] : "";
+        switch (endpoint) {
+            case "creategame":
+                return createGame(argument(parts, 3));
+            case "opengames":
+                return openGames();
+            case "joingame":
+                return game(parts).join(argument(parts, 4)) ? "1" : "0";
+            case "check":
+                return String.valueOf(game(parts).check(argument(parts, 4)));
+            case "state":
+                return String.valueOf(game(parts).getStatus());
+            case "statemsg":
+                return game(parts).getMessage();
+            case "move":
+                return game(parts).move(argument(parts, 4), Integer.parseInt(argument(parts, 5)));
+            default:
+                throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        }
+    }
+
+    private static String argument(String[] parts, int index) {
+        if (index >= parts.length) {
+            throw new IllegalArgumentException("Missing argument");
+        }
+        return parts[index];
+    }
+
+    private Game game(String[] parts) {
+        Game game = games.get(argument(parts, 3));
+        if (game == null) {
+            throw new IllegalArgumentException("Unknown game: " + parts[3]);
+        }
+        return game;
+    }
+
+    private String createGame(String name) {
+        String id = String.valueOf(nextId.getAndIncrement());
+        Game game = new Game(name, timeLimitMillis, reference ? AlphaBeta.reference() : null);
+        games.put(id, game);
+        if (reference) {
+            game.join(REFERENCE_NAME);
+        }
+        return id;
+    }
+
+    private String openGames() {
+        StringBuilder open = new StringBuilder();
+        for (Map.Entry<String, Game> entry : games.entrySet()) {
+            if (entry.getValue().getStatus() == Game.WAITING) {
+                if (open.length() > 0) {
+                    open.append(';');
+                }
+                open.append(entry.getKey());
+            }
+        }
+        return open.toString();
+    }
+
+    /**
+     * The Game class holds one game of the server. All methods are synchronized, the players poll concurrently.
+     */
+    static final class Game {
+        static final int WAITING = 0;
+        static final int RUNNING = 1;
+        static final int FINISHED = 2;
+
+        private final String red;
+        private String blue;
+        private final double timeLimitMillis;
+        // Plays the blue side if not null
+        private final AlphaBeta bot;
+        private State state = new State();
+        private int status = WAITING;
+        private int lastMove;
+        private long turnStart;
+        private String message = "Warte auf Gegner";
+
+        Game(String red, double timeLimitMillis, AlphaBeta bot) {
+            this.red = red;
+            this.timeLimitMillis = timeLimitMillis;
+            this.bot = bot;
+        }
+
+        synchronized boolean join(String name) {
+            if (status != WAITING || name.equals(red)) {
+                return false;
+            }
+            blue = name;
+            status = RUNNING;
+            turnStart = System.nanoTime();
+            message = "Rot (" + red + ") ist am Zug";
+            return true;
+        }
+
+        synchronized int check(String name) {
+            checkTime();
+            if (status == WAITING) {
+                return -3;
+            }
+            if (status == FINISHED) {
+                return -2;
+            }
+            if (lastMove == 0) {
+                return name.equals(red) ? -1 : 0;
+            }
+            return lastMove;
+        }
+
+        synchronized int getStatus() {
+            checkTime();
+            return status;
+        }
+
+        synchronized String getMessage() {
+            checkTime();
+            return message;
+        }
+
+        synchronized String move(String name, int field) {
+            checkTime();
+            if (status != RUNNING) {
+                return "Das Spiel läuft nicht";
+            }
+            boolean redToMove = state.getCurrentPlayer();
+            if (!name.equals(redToMove ? red : blue)) {
+                return "Nicht am Zug";
+            }
+            int action = field - 1;
+            if (action < 0 || action >= Position.PITS || (state.getLegalMoveMask() >>> action & 1) == 0) {
+                return "Ungültiger Zug: " + field;
+            }
+            play(action);
+            if (bot != null && status == RUNNING && !state.getCurrentPlayer()) {
+                play(bot.searchDepth(state, AlphaBeta.REFERENCE_DEPTH));
+            }
+            return "1";
+        }
+
+        private void play(int action) {
+            state = state.applyAction(action);
+            lastMove = action + 1;
+            turnStart = System.nanoTime();
+            if (state.isTerminal()) {
+                status = FINISHED;
+                message = result("Spiel beendet");
+            } else {
+                message = (state.getCurrentPlayer() ? "Rot (" + red : "Blau (" + blue) + ") ist am Zug, "
+                        + state.getP1Score() + " - " + state.getP2Score();
+            }
+        }
+
+        // Ends the game if the player to move has exceeded the time limit
+        private void checkTime() {
+            if (status == RUNNING && timeLimitMillis > 0 && (System.nanoTime() - turnStart) / 1e6 > timeLimitMillis) {
+                status = FINISHED;
+                String loser = state.getCurrentPlayer() ? red : blue;
+                message = "Zeitüberschreitung von " + loser + ", " + state.getP1Score() + " - " + state.getP2Score();
+            }
+        }
+
+        private String result(String reason) {
+            String winner = state.getResult() ? red : blue;
+            return reason + ", " + state.getP1Score() + " - " + state.getP2Score() + ", Sieger: " + winner;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package bohnenspiel;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The GameSession class holds the state of one game played on the server: the board and scores as seen by the
+ * client, the search tree kept between moves and the search running while the opponent is thinking. Several
+ * sessions can play concurrently, see {@link MultiGameClient}.
+ */
+public class GameSession {
+    private final String server;
+    private final String name;
+    private final String gameID;
+    private final boolean isRedSide;
+    // Runs the searches if not null, otherwise they run on the thread that plays the session
+    private final SearchScheduler scheduler;
+    // Printed before every line, so that the output of concurrent sessions can be told apart
+    private final String prefix;
+
+    // The packed position, see Position, starting with 6 beans in each field
+    private long low = Position.INITIAL_LOW;
+    private long high = Position.INITIAL_HIGH;
+    private final long[] next = new long[2];
+    private int moves = 0; // our own moves so far
+
+    // The search tree kept between moves, its root is the current position or the position after our own move
+    private SearchTree searchTree;
+    // Searches the node after our own move while the opponent is thinking, null if no search is running
+    private Ponder ponder;
+
+    /**
+     * Creates a session for a game that has been created or joined already.
+     *
+     * @param server the base URL of the server
+     * @param name the name of the player
+     * @param gameID the ID of the game
+     * @param isRedSide true if the player created the game and plays the red side
+     * @param scheduler the scheduler that runs the searches, or null to search on the playing thread
+     */
+    public GameSession(String server, String name, String gameID, boolean isRedSide, SearchScheduler scheduler) {
+        this.server = server;
+        this.name = name;
+        this.gameID = gameID;
+        this.isRedSide = isRedSide;
+        this.scheduler = scheduler;
+        this.prefix = scheduler == null ? "" : "[" + gameID + "] ";
+    }
+
+    /**
+     * This method is used to play the game.
+     * It checks the game state every 50 milliseconds, with both requests of a poll running concurrently.
+     * If it is our turn, it applies the opponent's move to the board, searches the next move and sends it.
+     * If the game has ended, it prints the state message and returns.
+     *
+     * The time limit of a move starts when the opponent has moved, so the search has to end within the time limit,
+     * less the safety margin, from the start of the poll that noticed the move.
+     *
+     * @return the state message of the finished game
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    public String play() throws Exception {
+        String checkURL = server + "/api/check/" + gameID + "/" + name;
+        String statesMsgURL = server + "/api/statemsg/" + gameID;
+        String stateIdURL = server + "/api/state/" + gameID;
+        int start, end;
+        if (isRedSide) {
+            start = 7;
+            end = 12;
+        } else {
+            start = 1;
+            end = 6;
+        }
+
+        while (true) {
+            Thread.sleep(50);
+            long pollStart = System.nanoTime();
+            // Both requests of a poll run concurrently
+            CompletableFuture<String> check = Main.loadAsync(checkURL);
+            CompletableFuture<String> stateId = Main.loadAsync(stateIdURL);
+            int moveState = Integer.parseInt(check.get());
+            int stateID = Integer.parseInt(stateId.get());
+            if (stateID != 2 && ((start <= moveState && moveState <= end) || moveState == -1)) {
+                long deadline = pollStart + (long) ((Arguments.MOVE_TIME_LIMIT - Arguments.TIME_SAFETY_MARGIN) * 1_000_000);
+                SearchMetrics metrics = SearchMetrics.begin(pollStart);
+                moves++;
+                if (moveState != -1) {
+                    int selectedField = moveState - 1;
+                    updateBoard(selectedField);
+                    log("Gegner wählte: " + moveState + " /\t" + Position.scoreRed(high) + " - " + Position.scoreBlue(high));
+                    log(Main.printBoard(getBoard()) + "\n");
+                }
+
+                // Calculate the next move using MCTS
+                // The parts of the tree that can be reused are stored in searchTree
+                if (ponder != null) {
+                    // The root is the node after our own move, its children are the opponent's moves
+                    log("Ponder-Iterationen: " + ponder.stop());
+                    ponder = null;
+                }
+                State currentState = new State(low, high);
+                if (searchTree == null || moveState == -1) {
+                    TranspositionTable table = Arguments.TRANSPOSITION_TABLE_SIZE > 0
+                            ? new TranspositionTable(Arguments.TRANSPOSITION_TABLE_SIZE, Arguments.TRANSPOSITION_REPLACEMENT)
+                            : null;
+                    searchTree = new SearchTree(currentState, table, Arguments.MAX_TREE_NODES);
+                } else {
+                    // The clock runs, the tree was compacted after our own move
+                    int reusedVisits = searchTree.follow(moveState - 1, currentState);
+                    log("Übernommene Besuche: " + reusedVisits + " (" + searchTree.getNodeCount() + " Knoten)");
+                }
+
+                // Book moves are played without a search
+                OpeningBook book = OpeningBook.get();
+                int selectField = book == null ? -1 : book.lookup(currentState);
+                boolean searched = selectField < 0;
+                if (!searched) {
+                    log("Eröffnungsbuch: Feld " + (selectField + 1) + " (" + book.getShare(currentState) + " Promille)");
+                } else {
+                    // Returns the root node of the finished mcts simulation
+                    // In root-parallel mode the returned node only holds the merged statistics of the independent trees
+                    int visitsBefore = searchTree.getRoot().getVisitCount();
+                    Node nextMove = search(deadline, metrics);
+                    metrics.searchFinished(nextMove, visitsBefore);
+                    selectField = MCTS.getBestActionFromFinishedSimulationRootNode(nextMove);
+                    log("Iterationen: " + (nextMove.getVisitCount() - visitsBefore) + " (" + Arguments.SEARCH_MODE + ", "
+                            + (scheduler == null ? Arguments.THREADS + " Threads" : "Scheduler") + ", "
+                            + Math.round(metrics.getPlayoutsPerSecond()) + "/s)");
+                    TranspositionTable transpositions = searchTree.getTable();
+                    if (transpositions != null) {
+                        log("Transpositionen: " + transpositions.getHits() + " Treffer, " + transpositions.getMisses() + " Fehlschläge");
+                    }
+                }
+
+                updateBoard(selectField);
+                log("Wähle Feld: " + (selectField + 1) + " /\t" + Position.scoreRed(high) + " - " + Position.scoreBlue(high));
+                log(Main.printBoard(getBoard()) + "\n\n");
+
+                move(selectField + 1);
+                // The tree is measured while the opponent is thinking, before it is advanced
+                if (searched) {
+                    metrics.publish(gameID, moves, selectField + 1, Arguments.SEARCH_MODE == SearchMode.ARENA ? null : searchTree);
+                }
+
+                // Keep the subtree of our own move, its children are the opponent's possible moves; the tree is
+                // compacted here, on the opponent's time
+                searchTree.advance(selectField, currentState.applyAction(selectField));
+                // The arena search keeps no tree that the search during the opponent's turn could grow, and the
+                // threads of the scheduler are shared with the other sessions
+                if (Arguments.PONDER && Arguments.SEARCH_MODE != SearchMode.ARENA && scheduler == null
+                        && !searchTree.getRoot().isTerminal()) {
+                    ponder = Ponder.start(searchTree);
+                }
+            } else if (moveState == -2 || stateID == 2) {
+                if (ponder != null) {
+                    ponder.stop();
+                    ponder = null;
+                }
+                log("GAME Finished");
+                String message = Main.load(statesMsgURL);
+                log(message);
+                return message;
+            } else if (scheduler == null) {
+                log("- " + moveState + "\t\t" + Main.load(statesMsgURL));
+            }
+        }
+    }
+
+    /**
+     * Searches the root of the search tree until the given deadline, on the scheduler if there is one.
+     */
+    private Node search(long deadline, SearchMetrics metrics) throws Exception {
+        if (scheduler == null) {
+            metrics.searchStarted();
+            return MCTS.search(searchTree, TimeManager.forDeadline(searchTree.getRoot().getState(), deadline));
+        }
+        return scheduler.submit(searchTree, deadline, metrics).get();
+    }
+
+    /**
+     * This method is used to update the game board with a move of either player, using the rules in
+     * {@link Position#applyAction(long, long, int, long[], int)}. The side to move changes with every move.
+     *
+     * @param field the field to update
+     */
+    void updateBoard(int field) {
+        Position.applyAction(low, high, field, next, 0);
+        low = next[0];
+        high = next[1];
+    }
+
+    /**
+     * Returns a copy of the current game board.
+     */
+    int[] getBoard() {
+        int[] board = new int[Position.PITS];
+        Position.unpack(low, high, board);
+        return board;
+    }
+
+    /**
+     * This method is used to make a move in the game.
+     * It constructs the URL to make a move using the field ID and then sends a request to the server.
+     * The server responds with a message which is then printed to the console.
+     *
+     * @param fieldID the ID of the field to make a move from
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    private void move(int fieldID) throws Exception {
+        String url = server + "/api/move/" + gameID + "/" + name + "/" + fieldID;
+        log(Main.load(url));
+    }
+
+    private void log(String line) {
+        System.out.println(prefix.isEmpty() ? line : prefix + line.replace("\n", "\n" + prefix));
+    }
+
+    /**
+     * Returns the ID of the game.
+     */
+    public String getGameID() {
+        return gameID;
+    }
+
+    /**
+     * Returns the scores of the red and the blue player as seen by the client.
+     */
+    public int[] getScores() {
+        return new int[] { Position.scoreRed(high), Position.scoreBlue(high) };
+    }
+}
@@ -0,0 +1,711 @@
+package bohnenspiel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The MCTS class contains the implementation of the Monte Carlo Tree Search algorithm.
+ */
+public class MCTS {
+  // Threads of the parallel search modes, created on demand and kept alive between moves
+  private static final ExecutorService SEARCH_THREADS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "mcts-search");
+    thread.setDaemon(true);
+    return thread;
+  });
+  // Arena of the arena search mode, allocated on first use and reset for every search
+  private static final ThreadLocal<NodeArena> ARENA = ThreadLocal.withInitial(() -> new NodeArena(Arguments.ARENA_CAPACITY));
+  // Endgame tablebase, null if there is no tablebase file
+  private static final Tablebase TABLEBASE = Tablebase.get();
+  // Evaluates the leaves instead of playouts, null if there is no network file
+  private static final NetworkEvaluator NETWORK = NetworkEvaluator.get();
+
+  /**
+   * Returns the action of the child node with the highest visit count from a finished simulation root node. Proven
+   * wins for the player to move come first, then the unproven children, then proven draws and proven losses last,
+   * see {@link Node#isProvenWin(boolean)}.
+   *
+   * @param node The root node of the finished simulation.
+   * @return The action of the best child node.
+   */
+  public static int getBestActionFromFinishedSimulationRootNode(Node node) {
+    List<Node> children = node.getChildNodes();
+    boolean redToMove = node.getState().getCurrentPlayer();
+    int best = 0;
+    for (int i = 1; i < children.size(); i++) {
+      int rank = proofRank(children.get(i), redToMove);
+      int bestRank = proofRank(children.get(best), redToMove);
+      if (rank > bestRank || rank == bestRank && children.get(i).getVisitCount() > children.get(best).getVisitCount()) {
+        best = i;
+      }
+    }
+    return node.getChildAction(best);
+  }
+
+  // 3 for a proven win of the player to move, 2 if unproven, 1 for a proven draw and 0 for a proven loss
+  private static int proofRank(Node child, boolean redToMove) {
+    if (!child.isProven()) {
+      return 2;
+    }
+    if (child.isProvenDraw()) {
+      return 1;
+    }
+    return child.isProvenWin(redToMove) ? 3 : 0;
+  }
+
+  /**
+   * Runs the search with the mode and number of threads configured in {@link Arguments}.
+   *
+   * @param root The root node to start the search from.
+   * @return The node to pick the best action from, see {@link #getBestActionFromFinishedSimulationRootNode(Node)}.
+   */
+  public static Node search(Node root) {
+    return search(new SearchTree(root, null, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Runs the search on a tree that is kept between moves, with the mode and number of threads configured in
+   * {@link Arguments}. The arena search only uses the state of the root.
+   *
+   * @param tree The tree to search.
+   * @return The node to pick the best action from, see {@link #getBestActionFromFinishedSimulationRootNode(Node)}.
+   */
+  public static Node search(SearchTree tree) {
+    return search(tree, TimeManager.forMove(tree.getRoot().getState()));
+  }
+
+  /**
+   * Runs the search on a tree that is kept between moves, with the mode and number of threads configured in
+   * {@link Arguments} and the given time management.
+   *
+   * @param tree The tree to search.
+   * @param time The time manager deciding when the search stops.
+   * @return The node to pick the best action from, see {@link #getBestActionFromFinishedSimulationRootNode(Node)}.
+   */
+  public static Node search(SearchTree tree, TimeManager time) {
+    if (Arguments.SEARCH_MODE == SearchMode.ARENA) {
+      return runArenaMCTS(ARENA.get(), tree.getRoot().getState(), time);
+    }
+    if (Arguments.THREADS <= 1) {
+      return runMCTS(tree, time);
+    }
+    switch (Arguments.SEARCH_MODE) {
+      case ROOT_PARALLEL:
+        return runRootParallelMCTS(tree, Arguments.THREADS, time);
+      case TREE_PARALLEL:
+        return runTreeParallelMCTS(tree, Arguments.THREADS, time);
+      default:
+        return runMCTS(tree, time);
+    }
+  }
+
+  /**
+   * Runs the MCTS algorithm for a specified number of iterations.
+   *
+   * @param root The root node to start the search from.
+   * @return The root node after running the search.
+   */
+  public static Node runMCTS(Node root) {
+    return runMCTS(new SearchTree(root, null, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Runs the MCTS algorithm for a specified number of iterations on a tree with a node budget, sharing nodes of
+   * identical positions through its transposition table. The statistics are updated along the selected path, as a
+   * node may have several parents.
+   *
+   * @param tree The tree to search.
+   * @return The root node after running the search.
+   */
+  public static Node runMCTS(SearchTree tree) {
+    return runMCTS(tree, TimeManager.forMove(tree.getRoot().getState()));
+  }
+
+  /**
+   * Runs the MCTS algorithm on a tree until the time manager stops it.
+   *
+   * @param tree The tree to search.
+   * @param time The time manager deciding when the search stops.
+   * @return The root node after running the search.
+   */
+  public static Node runMCTS(SearchTree tree, TimeManager time) {
+    Node root = tree.getRoot();
+    List<Node> path = new ArrayList<>();
+    int iterations = 0;
+    do {
+      for(int i = 0; i < TimeManager.CHECK_INTERVAL; i++) {
+        Node node = selection(root, path, 0);
+        node = expansion(node, tree, path, 0);
+        simulate(path, node, 0);
+      }
+      iterations += TimeManager.CHECK_INTERVAL;
+    } while(!time.shouldStop(root, iterations));
+    return root;
+  }
+
+  /**
+   * Runs the MCTS algorithm for a fixed number of iterations, e.g., for reproducible measurements.
+   *
+   * @param tree The tree to search.
+   * @param iterations The number of iterations.
+   * @return The root node after running the search.
+   */
+  public static Node runMCTS(SearchTree tree, int iterations) {
+    Node root = tree.getRoot();
+    List<Node> path = new ArrayList<>();
+    for(int i = 0; i < iterations; i++) {
+      Node node = selection(root, path, 0);
+      node = expansion(node, tree, path, 0);
+      simulate(path, node, 0);
+    }
+    return root;
+  }
+
+  /**
+   * Runs the MCTS algorithm until it is stopped, e.g., while the opponent is thinking, see {@link Ponder}.
+   *
+   * @param tree The tree to search.
+   * @param stop The flag that ends the search after the current iteration when set.
+   * @return The root node after running the search.
+   */
+  public static Node ponder(SearchTree tree, AtomicBoolean stop) {
+    Node root = tree.getRoot();
+    List<Node> path = new ArrayList<>();
+    while(!stop.get()) {
+      Node node = selection(root, path, 0);
+      node = expansion(node, tree, path, 0);
+      simulate(path, node, 0);
+    }
+    return root;
+  }
+
+  /**
+   * Runs the MCTS algorithm on a tree stored in an arena. The arena is reset first, the search stops adding
+   * nodes when the arena is full.
+   *
+   * @param arena The arena to store the tree in.
+   * @param state The state to start the search from.
+   * @return A new root node holding the statistics of the root and its children.
+   */
+  public static Node runArenaMCTS(NodeArena arena, State state) {
+    return runArenaMCTS(arena, state, TimeManager.forMove(state));
+  }
+
+  /**
+   * Runs the MCTS algorithm on a tree stored in an arena for a fixed number of iterations.
+   *
+   * @param arena The arena to store the tree in.
+   * @param state The state to start the search from.
+   * @param iterations The number of iterations.
+   * @return A new root node holding the statistics of the root and its children.
+   */
+  public static Node runArenaMCTS(NodeArena arena, State state, int iterations) {
+    int root = arena.createRoot(state);
+    for(int i = 0; i < iterations; i++) {
+      int node = selection(arena, root);
+      node = expansion(arena, node);
+      boolean result = simulation(arena, node);
+      backpropagation(arena, node, result);
+    }
+    return arena.toNode(root);
+  }
+
+  /**
+   * Runs the MCTS algorithm on a tree stored in an arena until the time manager stops it.
+   *
+   * @param arena The arena to store the tree in.
+   * @param state The state to start the search from.
+   * @param time The time manager deciding when the search stops.
+   * @return A new root node holding the statistics of the root and its children.
+   */
+  public static Node runArenaMCTS(NodeArena arena, State state, TimeManager time) {
+    int root = arena.createRoot(state);
+    boolean forced = Integer.bitCount(state.getLegalMoveMask()) <= 1;
+    int iterations = 0;
+    while(true) {
+      for(int i = 0; i < TimeManager.CHECK_INTERVAL; i++) {
+        int node = selection(arena, root);
+        node = expansion(arena, node);
+        boolean result = simulation(arena, node);
+        backpropagation(arena, node, result);
+      }
+      iterations += TimeManager.CHECK_INTERVAL;
+
+      int best = 0;
+      int second = 0;
+      for(int child = arena.getFirstChild(root); child != NodeArena.NONE; child = arena.getNextSibling(child)) {
+        int visits = arena.getVisitCount(child);
+        if(visits > best) {
+          second = best;
+          best = visits;
+        } else if(visits > second) {
+          second = visits;
+        }
+      }
+      if(time.shouldStop(best, second, iterations, forced)) {
+        return arena.toNode(root);
+      }
+    }
+  }
+
+  /**
+   * Runs a root-parallel search: every thread searches its own tree from the state of the root for the same time
+   * budget and with a differently seeded random generator. The first thread continues the given root, so that
+   * reused statistics are not lost.
+   *
+   * @param root The root node to start the search from.
+   * @param threads The number of independent trees.
+   * @return A new root node whose children hold the per-action statistics merged over all trees.
+   */
+  public static Node runRootParallelMCTS(Node root, int threads) {
+    return runRootParallelMCTS(new SearchTree(root, null, Integer.MAX_VALUE), threads);
+  }
+
+  /**
+   * Runs a root-parallel search, the first thread continues the given tree. The other trees are searched without a
+   * transposition table and with the same node budget, they are discarded after the search.
+   *
+   * @param tree The tree to continue.
+   * @param threads The number of independent trees.
+   * @return A new root node whose children hold the per-action statistics merged over all trees.
+   */
+  public static Node runRootParallelMCTS(SearchTree tree, int threads) {
+    return runRootParallelMCTS(tree, threads, TimeManager.forMove(tree.getRoot().getState()));
+  }
+
+  /**
+   * Runs a root-parallel search until the time manager stops each tree.
+   *
+   * @param tree The tree to continue.
+   * @param threads The number of independent trees.
+   * @param time The time manager deciding when the search of each tree stops.
+   * @return A new root node whose children hold the per-action statistics merged over all trees.
+   */
+  public static Node runRootParallelMCTS(SearchTree tree, int threads, TimeManager time) {
+    List<SearchTree> trees = new ArrayList<>(threads);
+    trees.add(tree);
+    for (int i = 1; i < threads; i++) {
+      trees.add(new SearchTree(tree.getRoot().getState(), null, tree.getMaxNodes()));
+    }
+
+    long seed = System.nanoTime();
+    List<Callable<Node>> searches = new ArrayList<>(threads);
+    List<Node> roots = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      SearchTree independentTree = trees.get(i);
+      long treeSeed = seed + i * 0x9E3779B97F4A7C15L;
+      roots.add(independentTree.getRoot());
+      searches.add(() -> {
+        FastRandom.current().setSeed(treeSeed);
+        return runMCTS(independentTree, time);
+      });
+    }
+    awaitAll(searches);
+    return mergeRootStatistics(roots);
+  }
+
+  /**
+   * Runs a tree-parallel search: all threads share the given tree for the time budget. Every node on the path of a
+   * running simulation carries a virtual loss, see {@link Node#addVirtualLoss(int)}.
+   *
+   * @param root The root node to start the search from.
+   * @param threads The number of threads sharing the tree.
+   * @return The root node after running the search.
+   */
+  public static Node runTreeParallelMCTS(Node root, int threads) {
+    return runTreeParallelMCTS(new SearchTree(root, null, Integer.MAX_VALUE), threads);
+  }
+
+  /**
+   * Runs a tree-parallel search on a tree with a node budget, whose transposition table is shared by all threads.
+   *
+   * @param tree The tree to search.
+   * @param threads The number of threads sharing the tree.
+   * @return The root node after running the search.
+   */
+  public static Node runTreeParallelMCTS(SearchTree tree, int threads) {
+    return runTreeParallelMCTS(tree, threads, TimeManager.forMove(tree.getRoot().getState()));
+  }
+
+  /**
+   * Runs a tree-parallel search until the time manager stops it.
+   *
+   * @param tree The tree to search.
+   * @param threads The number of threads sharing the tree.
+   * @param time The time manager deciding when the search stops.
+   * @return The root node after running the search.
+   */
+  public static Node runTreeParallelMCTS(SearchTree tree, int threads, TimeManager time) {
+    Node root = tree.getRoot();
+    int visitsBefore = root.getVisitCount();
+    long seed = System.nanoTime();
+    List<Callable<Node>> searches = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      long threadSeed = seed + i * 0x9E3779B97F4A7C15L;
+      searches.add(() -> {
+        FastRandom.current().setSeed(threadSeed);
+        List<Node> path = new ArrayList<>();
+        do {
+          for(int j = 0; j < TimeManager.CHECK_INTERVAL; j++) {
+            Node node = selection(root, path, Arguments.VIRTUAL_LOSS);
+            node = expansion(node, tree, path, Arguments.VIRTUAL_LOSS);
+            simulate(path, node, Arguments.VIRTUAL_LOSS);
+          }
+          // The iterations of all threads count, they all grow the shared root
+        } while(!time.shouldStop(root, root.getVisitCount() - visitsBefore));
+        return root;
+      });
+    }
+    awaitAll(searches);
+    return root;
+  }
+
+  /**
+   * Runs the given searches on the search threads and waits until all of them have finished.
+   */
+  private static void awaitAll(List<Callable<Node>> searches) {
+    try {
+      for (Future<Node> search : SEARCH_THREADS.invokeAll(searches)) {
+        search.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Search interrupted", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Search failed", e.getCause());
+    }
+  }
+
+  /**
+   * Merges the statistics of several trees searched from the same state.
+   *
+   * @param roots The root nodes of the trees.
+   * @return A new root node with one child per action found in any tree, holding the summed statistics.
+   */
+  public static Node mergeRootStatistics(List<Node> roots) {
+    Node merged = new Node(roots.get(0).getState());
+    for (Node root : roots) {
+      merged.addStats(root);
+      List<Node> children = root.getChildNodes();
+      for (int i = 0; i < children.size(); i++) {
+        int action = root.getChildAction(i);
+        Node mergedChild = merged.getChild(action);
+        if (mergedChild == null) {
+          mergedChild = merged.expand(action);
+        }
+        mergedChild.addStats(children.get(i));
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Selects a node using the UCT formula until a terminal, proven or non-fully expanded node is found. The
+   * selection also stops at a node whose children are all proven, see {@link Node#select()}.
+   *
+   * @param node The node to start the selection from.
+   * @return The selected node.
+   */
+  public static Node selection(Node node) {
+    // The depth below the start tells the root apart, parent pointers may end at any node after a transposition
+    int depth = 0;
+    while(!node.isTerminal() && node.isFullyExpanded() && !(node.isProven() && depth > 0)) {
+      Node child = node.select();
+      if(child == null) {
+        // The children were proven through other parents
+        node.updateProof();
+        break;
+      }
+      node = child;
+      depth++;
+    }
+    return node;
+  }
+
+  /**
+   * Selects a node using the UCT formula like {@link #selection(Node)} and records the path from the given node to
+   * the selected one, adding a virtual loss to every node on it. The selection also stops when the path gets longer
+   * than {@link Arguments#MAX_TREE_DEPTH}, because transpositions may lead back to a position on the path. A proven
+   * root is still searched, so that its children are expanded and proven for the choice of the move.
+   *
+   * @param node The node to start the selection from.
+   * @param path The list that is cleared and receives the selected path.
+   * @param virtualLoss The virtual loss to add to each node on the path, 0 unless the tree is shared by threads.
+   * @return The selected node.
+   */
+  public static Node selection(Node node, List<Node> path, int virtualLoss) {
+    path.clear();
+    path.add(node);
+    node.addVirtualLoss(virtualLoss);
+    while(!node.isTerminal() && node.isFullyExpanded() && !(node.isProven() && path.size() > 1)
+        && path.size() <= Arguments.MAX_TREE_DEPTH) {
+      Node child = node.select();
+      if(child == null) {
+        // The children were proven through other parents
+        node.updateProof();
+        break;
+      }
+      node = child;
+      path.add(node);
+      node.addVirtualLoss(virtualLoss);
+    }
+    return node;
+  }
+
+  /**
+   * Expands a node by adding a new child node for an untried action.
+   *
+   * @param node The node to expand.
+   * @param depth The number of moves from the root of the search to the node, a proven root is still expanded.
+   * @return The expanded node if the node is not terminal, proven or fully expanded, otherwise the original node.
+   */
+  public static Node expansion(Node node, int depth) {
+    // A root whose children are all proven is returned by the selection although it is fully expanded
+    if(!node.isTerminal() && !node.isFullyExpanded() && !(depth > 0 && node.isProven())) {
+      return node.expand();
+    }
+    return node;
+  }
+
+  /**
+   * Expands the last node of a selected path within the node budget of the tree, sharing nodes of known positions
+   * through its transposition table, and appends the child to the path.
+   *
+   * @param node The node to expand, the last node of the path.
+   * @param tree The tree the node belongs to.
+   * @param path The selected path.
+   * @param virtualLoss The virtual loss to add to the child, 0 unless the tree is shared by threads.
+   * @return The child node, or the given node if it is terminal, the budget is used up or it has no untried actions.
+   */
+  public static Node expansion(Node node, SearchTree tree, List<Node> path, int virtualLoss) {
+    if(node.isTerminal() || node.isFullyExpanded()) {
+      return node;
+    }
+    // Below the root, the results of proven nodes are certain, including those of tablebase positions
+    if(path.size() > 1 && node.isProven()) {
+      return node;
+    }
+    // The children of a node are expanded in the order of its priors, only the root is expanded before it was a leaf
+    if(NETWORK != null && !node.hasPriors()) {
+      evaluation(node);
+    }
+    // Another thread may have expanded the last untried action since the selection
+    Node child = tree.expand(node);
+    if(child == null) {
+      return node;
+    }
+    path.add(child);
+    child.addVirtualLoss(virtualLoss);
+    return child;
+  }
+
+  /**
+   * Selects an arena node using the UCT formula until a terminal or non-fully expanded node is found.
+   *
+   * @param arena The arena holding the tree.
+   * @param node The ID of the node to start the selection from.
+   * @return The ID of the selected node.
+   */
+  public static int selection(NodeArena arena, int node) {
+    while(!arena.isTerminal(node) && arena.isFullyExpanded(node)) {
+      boolean redToMove = Position.isRedToMove(arena.getHigh(node));
+      double exploration = UctTables.exploration(arena.getVisitCount(node));
+      int best = NodeArena.NONE;
+      double bestUCB = Double.NEGATIVE_INFINITY;
+      for(int child = arena.getFirstChild(node); child != NodeArena.NONE; child = arena.getNextSibling(child)) {
+        int wins = redToMove ? arena.getSumWinsRed(child) : arena.getSumWinsBlue(child);
+        double ucb = UctTables.ucb(wins, arena.getVisitCount(child), exploration);
+        if(ucb > bestUCB) {
+          bestUCB = ucb;
+          best = child;
+        }
+      }
+      node = best;
+    }
+    return node;
+  }
+
+  /**
+   * Expands an arena node by adding a child node for a random untried action.
+   *
+   * @param arena The arena holding the tree.
+   * @param node The ID of the node to expand.
+   * @return The ID of the new child, or the given node if it is terminal or the arena is full.
+   */
+  public static int expansion(NodeArena arena, int node) {
+    int untried = arena.getUntriedActions(node);
+    if(untried == 0) {
+      return node;
+    }
+    if(arena.getParent(node) != NodeArena.NONE && isSolved(arena.getLow(node), arena.getHigh(node))) {
+      return node;
+    }
+    int child = arena.addChild(node, FastRandom.current().nextSetBit(untried));
+    return child == NodeArena.NONE ? node : child;
+  }
+
+  /**
+   * Returns true if the outcome of a position is known from the endgame tablebase. Such nodes are leaves below the
+   * root, their simulation returns the exact result, see {@link Playout}.
+   *
+   * @param low The low word of the position.
+   * @param high The high word of the position.
+   * @return True if the tablebase contains the position.
+   */
+  public static boolean isSolved(long low, long high) {
+    return TABLEBASE != null && TABLEBASE.contains(low, high);
+  }
+
+  /**
+   * Simulates a random playout from an arena node and returns the result.
+   *
+   * @param arena The arena holding the tree.
+   * @param node The ID of the node to start the simulation from.
+   * @return The result of the simulation.
+   */
+  public static boolean simulation(NodeArena arena, int node) {
+    return Playout.current().run(arena.getLow(node), arena.getHigh(node), Arguments.MAX_SIMULATION_DEPTH);
+  }
+
+  /**
+   * Simulates a random playout from a node and returns the result.
+   * The playout runs in place on the packed position and does not allocate, see {@link Playout}.
+   *
+   * @param node The node to start the simulation from.
+   * @return The result of the simulation.
+   */
+  public static boolean simulation(Node node) {
+    if(node.isProvenDraw()) {
+      // The statistics count wins, a draw counts as half a win for each player on average
+      return FastRandom.current().nextInt(2) == 0;
+    }
+    if(node.isProven()) {
+      return node.getProvenResult();
+    }
+    return Playout.current().run(node.getState(), Arguments.MAX_SIMULATION_DEPTH);
+  }
+
+  /**
+   * Evaluates a node with the network instead of a playout and sets its priors, see {@link NetworkEvaluator}. The
+   * statistics count wins, so the result is drawn with the win probability given by the value of the network.
+   *
+   * @param node The node to evaluate.
+   * @return The result of the evaluation.
+   */
+  public static boolean evaluation(Node node) {
+    float[] priors = new float[Position.PITS];
+    float value = NETWORK.evaluate(node.getState().getLow(), node.getState().getHigh(), priors);
+    node.setPriors(priors);
+    boolean playerToMoveWins = FastRandom.current().nextInt(1 << 24) < (value + 1) / 2 * (1 << 24);
+    return playerToMoveWins == node.getState().getCurrentPlayer();
+  }
+
+  /**
+   * Simulates a batch of random playouts from a node at once, see {@link VectorPlayout}.
+   *
+   * @param node The node to start the simulations from.
+   * @return The number of simulations won by the red player, out of {@link VectorPlayout#LANES}.
+   */
+  public static int simulationBatch(Node node) {
+    return VectorPlayout.current().run(node.getState().getLow(), node.getState().getHigh(), Arguments.MAX_SIMULATION_DEPTH);
+  }
+
+  /**
+   * Simulates from the last node of a selected path and updates the statistics of the path, with the network if
+   * there is one, with a batch of playouts if {@link Arguments#VECTOR_PLAYOUTS} is set and a single playout otherwise.
+   */
+  private static void simulate(List<Node> path, Node node, int virtualLoss) {
+    if(NETWORK != null && !node.isProven() && !node.isTerminal()) {
+      backpropagation(path, evaluation(node), virtualLoss);
+    } else if(Arguments.VECTOR_PLAYOUTS && !node.isProven()) {
+      backpropagation(path, simulationBatch(node), VectorPlayout.LANES, virtualLoss);
+    } else {
+      backpropagation(path, simulation(node), virtualLoss);
+    }
+  }
+
+  /**
+   * Updates the statistics of all nodes in the path from a node to the root, following the nodes each node was
+   * created from. After a transposition this path may differ from the selected one, and it ends early at a node
+   * whose parent was released, see {@link SearchTree#compact()}.
+   *
+   * @param node The node to start the backpropagation from.
+   * @param result The result of the simulation to update the statistics with.
+   */
+  public static void backpropagation(Node node, boolean result) {
+    for(Node proven = node; proven.getParent() != null && proven.isProven(); proven = proven.getParent()) {
+      if(!proven.getParent().updateProof()) {
+        break;
+      }
+    }
+    while(node != null) {
+      node.updateStats(result);
+      node = node.getParent();
+    }
+  }
+
+  /**
+   * Updates the statistics of all arena nodes in the path from a node to the root.
+   *
+   * @param arena The arena holding the tree.
+   * @param node The ID of the node to start the backpropagation from.
+   * @param result The result of the simulation to update the statistics with.
+   */
+  public static void backpropagation(NodeArena arena, int node, boolean result) {
+    while(node != NodeArena.NONE) {
+      arena.updateStats(node, result);
+      node = arena.getParent(node);
+    }
+  }
+
+  /**
+   * Updates the statistics of all nodes on a selected path and removes their virtual loss.
+   *
+   * @param path The path recorded by the selection and expansion.
+   * @param result The result of the simulation to update the statistics with.
+   * @param virtualLoss The virtual loss that was added to each node on the path.
+   */
+  public static void backpropagation(List<Node> path, boolean result, int virtualLoss) {
+    for(int i = path.size() - 1; i >= 0; i--) {
+      path.get(i).updateStats(result, virtualLoss);
+    }
+    propagateProof(path);
+  }
+
+  /**
+   * Updates the statistics of all nodes on a selected path with the results of a batch of simulations and removes
+   * their virtual loss.
+   *
+   * @param path The path recorded by the selection and expansion.
+   * @param redWins The number of simulations won by the red player.
+   * @param simulations The number of simulations.
+   * @param virtualLoss The virtual loss that was added to each node on the path.
+   */
+  public static void backpropagation(List<Node> path, int redWins, int simulations, int virtualLoss) {
+    for(int i = path.size() - 1; i >= 0; i--) {
+      path.get(i).addStats(simulations - virtualLoss, redWins, simulations - redWins);
+    }
+    propagateProof(path);
+  }
+
+  /**
+   * Proves the nodes of a path upwards from a proven last node as far as the minimax rules allow, see
+   * {@link Node#updateProof()}.
+   *
+   * @param path The path recorded by the selection and expansion.
+   */
+  public static void propagateProof(List<Node> path) {
+    for(int i = path.size() - 2; i >= 0 && path.get(i + 1).isProven(); i--) {
+      if(!path.get(i).updateProof()) {
+        return;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,202 @@
+package bohnenspiel;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+
+/**
+ * Main class for the game.
+ */
+public class Main {
+    // Set -Dbohnenspiel.server=http://127.0.0.1:5000 to play on a local GameServer
+    static String server = System.getProperty("bohnenspiel.server", "http://ole.informatik.uni-mannheim.de");
+    static String name = "star lord";
+
+    // Shared by all requests, keeps the connections to the server alive between them
+    static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    /**
+     * Main method of the application.
+     * @param args command line arguments
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    public static void main(String[] args) throws Exception {
+        Scanner scanner = new Scanner(System.in);
+        System.out.println("What do you want to do?");
+        System.out.println("1: Create a new game");
+        System.out.println("2: See the list of open games");
+        System.out.println("3: Join a game");
+
+        int choice = scanner.nextInt();
+        // The searches of the game should run compiled code from the first move
+        if ((choice == 1 || choice == 3) && Arguments.WARMUP_MILLIS > 0) {
+            Warmup.run(Arguments.WARMUP_MILLIS).print(System.out);
+        }
+
+        switch (choice) {
+            case 1:
+                createGame();
+                break;
+            case 2:
+                openGames();
+                break;
+            case 3:
+                System.out.println("Please paste the gameID:");
+                String gameID = scanner.next();
+                joinGame(gameID);
+                break;
+            default:
+                System.out.println("Invalid choice");
+                break;
+        }
+    }
+
+
+    /**
+     * This method is used to create a new game.
+     * It first constructs the URL to create a game and then sends a request to the server.
+     * The server responds with a game ID which is then printed to the console.
+     *
+     * After the game is created, it enters a loop where it checks the state of the game every 3 seconds.
+     * If the state is "0" or "-1", it breaks the loop and plays the game as the red player, see {@link GameSession#play()}.
+     * If the state is "-2", it prints "time out" to the console and returns from the method.
+     *
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    static void createGame() throws Exception {
+        String url = server + "/api/creategame/" + name;
+        String gameID = load(url);
+        System.out.println("Spiel erstellt. ID: " + gameID);
+
+        url = server + "/api/check/" + gameID + "/" + name;
+        while (true) {
+            Thread.sleep(50);
+            String state = load(url);
+            System.out.print("." + " (" + state + ")");
+            if (state.equals("0") || state.equals("-1")) {
+                break;
+            } else if (state.equals("-2")) {
+                System.out.println("time out");
+                return;
+            }
+        }
+
+        // We are the first player since we start the game. We are therefore the red player.
+        new GameSession(server, name, gameID, true, null).play();
+    }
+
+    /**
+     * This method is used to fetch and print the list of open games.
+     * It constructs the URL to fetch open games and sends a request to the server.
+     * The server responds with a list of open games which are then split into an array.
+     * Each game in the array is then printed to the console.
+     *
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    static void openGames() throws Exception {
+        String url = server + "/api/opengames";
+        String[] opengames = load(url).split(";");
+        for (int i = 0; i < opengames.length; i++) {
+            System.out.println(opengames[i]);
+        }
+    }
+
+    /**
+     * This method is used to join a game.
+     * It first constructs the URL to join a game using the provided game ID and then sends a request to the server.
+     * The server responds with a state which is then printed to the console.
+     *
+     * If the state is "1", it plays the game as the blue player, see {@link GameSession#play()}.
+     * If the state is "0", it prints "error (join game)" to the console.
+     *
+     * @param gameID the ID of the game to join
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    static void joinGame(String gameID) throws Exception {
+        String url = server + "/api/joingame/" + gameID + "/" + name;
+        String state = load(url);
+        System.out.println("Join-Game-State: " + state);
+        if (state.equals("1")) {
+            new GameSession(server, name, gameID, false, null).play();
+        } else if (state.equals("0")) {
+            System.out.println("error (join game)");
+        }
+    }
+
+    /**
+     * This method is used to print the current state of the game board.
+     * It first constructs a string representation of the top half of the board (positions 7 to 12) in reverse order.
+     * It then adds a newline character to the string and appends a string representation of the bottom half of the board (positions 1 to 6).
+     *
+     * @param board the current game board
+     * @return a string representation of the game board
+     */
+    static String printBoard(int[] board) {
+        String s = "";
+        for (int i = 11; i >= 6; i--) {
+            if (i != 6) {
+                s += board[i] + "; ";
+            } else {
+                s += board[i];
+            }
+        }
+
+        s += "\n";
+        for (int i = 0; i <= 5; i++) {
+            if (i != 5) {
+                s += board[i] + "; ";
+            } else {
+                s += board[i];
+            }
+        }
+
+        return s;
+    }
+
+    /**
+     * Method to load the URL.
+     * @param url the URL to load
+     * @return the loaded URL
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    static String load(String url) throws Exception {
+        try {
+            return loadAsync(url).get();
+        } catch (ExecutionException e) {
+            // The failure of the request itself, e.g., an IOException for an error status
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Method to load the URL without waiting for the response.
+     * @param url the URL to load
+     * @return the future response body without line breaks, completed with an IOException if the server answers with
+     * a status other than 2xx
+     */
+    static CompletableFuture<String> loadAsync(String url) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url.replace(" ", "")))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    // Like URL.openStream(), an error page must not be taken for the answer of the game
+                    if (response.statusCode() / 100 != 2) {
+                        throw new CompletionException(new IOException("HTTP " + response.statusCode() + " for " + url));
+                    }
+                    return response.body().replace("\r", "").replace("\n", "");
+                });
+    }
+}
@@ -0,0 +1,85 @@
+package bohnenspiel;
+
+/**
+ * The MctsPlayer class chooses actions with an MCTS search, either for a fixed number of iterations or for a fixed
+ * time per move, on {@link Node} objects or on a {@link NodeArena}. Each move starts a new tree. A search on nodes may
+ * use several threads of its own, root- or tree-parallel; a fixed number of iterations is then shared by the threads
+ * and only checked every {@link TimeManager#CHECK_INTERVAL} iterations. The arena search is single-threaded.
+ */
+public class MctsPlayer implements Player {
+    private final int iterations;
+    private final double millis;
+    private final NodeArena arena;
+    private final int threads;
+    private final SearchMode mode;
+    private final String name;
+    private long lastIterations;
+
+    /**
+     * Creates an MCTS player.
+     *
+     * @param iterations the number of iterations per move, or 0 to search for the given time
+     * @param millis the time per move in milliseconds if the number of iterations is 0
+     * @param arena true to search on a {@link NodeArena}
+     */
+    public MctsPlayer(int iterations, double millis, boolean arena) {
+        this(iterations, millis, arena, 1, SearchMode.ROOT_PARALLEL);
+    }
+
+    /**
+     * Creates an MCTS player that searches on nodes with several threads.
+     *
+     * @param iterations the number of iterations per move of all threads together, or 0 to search for the given time
+     * @param millis the time per move in milliseconds if the number of iterations is 0
+     * @param threads the number of search threads
+     * @param mode {@link SearchMode#ROOT_PARALLEL} or {@link SearchMode#TREE_PARALLEL}
+     */
+    public MctsPlayer(int iterations, double millis, int threads, SearchMode mode) {
+        this(iterations, millis, false, threads, mode);
+    }
+
+    private MctsPlayer(int iterations, double millis, boolean arena, int threads, SearchMode mode) {
+        this.iterations = iterations;
+        this.millis = millis;
+        this.arena = arena ? new NodeArena(Arguments.ARENA_CAPACITY) : null;
+        this.threads = threads;
+        this.mode = mode;
+        String budget = iterations > 0 ? String.valueOf(iterations) : (int) millis + "ms";
+        this.name = (arena ? "arena:" : "mcts:") + budget
+                + (threads > 1 ? ":" + threads + (mode == SearchMode.TREE_PARALLEL ? ":tree" : ":root") : "");
+    }
+
+    @Override
+    public int chooseAction(State state) {
+        Node root;
+        if (arena != null) {
+            root = iterations > 0 ? MCTS.runArenaMCTS(arena, state, iterations)
+                    : MCTS.runArenaMCTS(arena, state, TimeManager.fixed(millis));
+        } else {
+            SearchTree tree = new SearchTree(state, null, Arguments.MAX_TREE_NODES);
+            if (threads <= 1) {
+                root = iterations > 0 ? MCTS.runMCTS(tree, iterations) : MCTS.runMCTS(tree, TimeManager.fixed(millis));
+            } else if (mode == SearchMode.TREE_PARALLEL) {
+                // The threads count the iterations of the shared root
+                root = MCTS.runTreeParallelMCTS(tree, threads,
+                        iterations > 0 ? TimeManager.forIterations(iterations) : TimeManager.fixed(millis));
+            } else {
+                // Each tree counts its own iterations
+                root = MCTS.runRootParallelMCTS(tree, threads,
+                        iterations > 0 ? TimeManager.forIterations((iterations + threads - 1) / threads) : TimeManager.fixed(millis));
+            }
+        }
+        lastIterations = root.getVisitCount();
+        return MCTS.getBestActionFromFinishedSimulationRootNode(root);
+    }
+
+    @Override
+    public long getLastIterations() {
+        return lastIterations;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,73 @@
+package bohnenspiel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The MetricsLog class appends the {@link SearchMetrics} of every move to a file, one line per move, and flushes
+ * each line, so that the file can be followed while the games run. A file ending in ".csv" is written as CSV with a
+ * header line, any other file as JSON lines. Several games may write concurrently.
+ */
+public class MetricsLog {
+    private static final MetricsLog DEFAULT = Arguments.METRICS_FILE.isEmpty() ? null : open(Paths.get(Arguments.METRICS_FILE));
+
+    private final Writer out;
+    private final boolean csv;
+
+    private MetricsLog(Writer out, boolean csv) {
+        this.out = out;
+        this.csv = csv;
+    }
+
+    /**
+     * Returns the log configured by {@link Arguments#METRICS_FILE}, or null if none is configured.
+     */
+    public static MetricsLog get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Opens a log, appending to the file if it exists.
+     *
+     * @param file the file to write, CSV if its name ends in ".csv" and JSON lines otherwise
+     * @return the log
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static MetricsLog open(Path file) {
+        boolean csv = file.getFileName().toString().endsWith(".csv");
+        try {
+            boolean empty = !Files.exists(file) || Files.size(file) == 0;
+            Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            if (csv && empty) {
+                out.write(SearchMetrics.CSV_HEADER);
+                out.write('\n');
+                out.flush();
+            }
+            return new MetricsLog(out, csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the metrics of one move. A failed write is reported on the console and does not stop the game.
+     *
+     * @param metrics the metrics to write
+     */
+    public synchronized void write(SearchMetrics metrics) {
+        try {
+            out.write(csv ? metrics.toCsv() : metrics.toJson());
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Metriken nicht geschrieben: " + e.getMessage());
+        }
+    }
+}
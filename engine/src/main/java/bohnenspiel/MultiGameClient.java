@@ -0,0 +1,107 @@
+package bohnenspiel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The MultiGameClient class plays several games on the server at the same time. Every game is a {@link GameSession}
+ * polled by its own thread, while the searches of all games share the threads of one {@link SearchScheduler}, which
+ * always runs the search with the earliest deadline first. Pondering is disabled, the search threads are busy with
+ * the other games.
+ *
+ * Usage: {@code java bohnenspiel.MultiGameClient <games> [threads]} to create games and wait for opponents, or
+ * {@code java bohnenspiel.MultiGameClient join <id>... [--threads N]} to join open games.
+ */
+public class MultiGameClient {
+
+    /**
+     * Main method of the client.
+     * @param args the number of games to create and optionally the number of search threads, or "join" and the IDs
+     *             of the games to join
+     * @throws Exception if any error occurs during the execution of the method.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.out.println("Usage: MultiGameClient <games> [threads] | join <id>... [--threads N]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> joinIDs = new ArrayList<>();
+        int games = 0;
+        if (args[0].equals("join")) {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else {
+                    joinIDs.add(args[i]);
+                }
+            }
+        } else {
+            games = Integer.parseInt(args[0]);
+            if (args.length > 1) {
+                threads = Integer.parseInt(args[1]);
+            }
+        }
+
+        if (Arguments.WARMUP_MILLIS > 0) {
+            Warmup.run(Arguments.WARMUP_MILLIS).print(System.out);
+        }
+        SearchScheduler scheduler = new SearchScheduler(threads);
+        ExecutorService pollers = Executors.newFixedThreadPool(Math.max(1, games + joinIDs.size()));
+        List<Future<String>> results = new ArrayList<>();
+        List<String> gameIDs = new ArrayList<>();
+        for (int i = 0; i < games; i++) {
+            String gameID = Main.load(Main.server + "/api/creategame/" + Main.name);
+            System.out.println("Spiel erstellt. ID: " + gameID);
+            gameIDs.add(gameID);
+            results.add(pollers.submit(() -> createdGame(gameID, scheduler)));
+        }
+        for (String gameID : joinIDs) {
+            gameIDs.add(gameID);
+            results.add(pollers.submit(() -> joinedGame(gameID, scheduler)));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            String message;
+            try {
+                message = results.get(i).get();
+            } catch (Exception e) {
+                message = "Fehler: " + e.getCause();
+            }
+            System.out.println("Spiel " + gameIDs.get(i) + ": " + message);
+        }
+        pollers.shutdown();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Waits for the opponent of a created game and plays it as the red player.
+     */
+    private static String createdGame(String gameID, SearchScheduler scheduler) throws Exception {
+        String url = Main.server + "/api/check/" + gameID + "/" + Main.name;
+        while (true) {
+            Thread.sleep(50);
+            String state = Main.load(url);
+            if (state.equals("0") || state.equals("-1")) {
+                break;
+            } else if (state.equals("-2")) {
+                return "time out";
+            }
+        }
+        return new GameSession(Main.server, Main.name, gameID, true, scheduler).play();
+    }
+
+    /**
+     * Joins an open game and plays it as the blue player.
+     */
+    private static String joinedGame(String gameID, SearchScheduler scheduler) throws Exception {
+        String state = Main.load(Main.server + "/api/joingame/" + gameID + "/" + Main.name);
+        if (!state.equals("1")) {
+            return "error (join game)";
+        }
+        return new GameSession(Main.server, Main.name, gameID, false, scheduler).play();
+    }
+}
@@ -0,0 +1,405 @@
+package bohnenspiel;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The Network class evaluates positions with the policy/value network trained in {@code python/}, see
+ * {@code architecture_model.py}. The weights are exported by {@code python/export.py}, which folds every batch
+ * normalization into the convolution before it, so that inference only needs convolutions, linear layers, ReLU and
+ * tanh on float arrays.
+ *
+ * A position is encoded from the view of the player to move as 3 planes of 2 x 6 cells: the beans of the player's
+ * pits in the first row and those of the opponent's pits, in reverse order, in the second row, so that the board
+ * reads counter-clockwise like {@link Main#printBoard(int[])}, then the scores of both players in every cell. The
+ * policy has one entry per pit of the player to move.
+ *
+ * Activations are stored with the channels innermost, so the inner loop of a convolution runs over the contiguous
+ * output channels of the weights and the activations, which the JIT compiles to SIMD instructions.
+ *
+ * The file starts with the magic number, the version, the number of residual blocks and the number of hidden
+ * channels, followed by the layers in the order of the model: the start convolution, two convolutions per residual
+ * block, the policy convolution and linear layer, and the value convolution and linear layer. Each layer consists of
+ * its weights in the order of PyTorch and its biases, as big-endian floats.
+ */
+public final class Network {
+    // "BSNN" in ASCII
+    static final int MAGIC = 0x42534E4E;
+    static final int VERSION = 1;
+
+    public static final int ROWS = 2;
+    public static final int COLUMNS = 6;
+    public static final int CELLS = ROWS * COLUMNS;
+    public static final int INPUT_CHANNELS = 3;
+    public static final int ACTIONS = 6;
+    static final int POLICY_CHANNELS = 32;
+    static final int VALUE_CHANNELS = 3;
+    // Largest number of hidden channels accepted from a file
+    private static final int MAX_HIDDEN = 1024;
+
+    private static final Network DEFAULT = load(Paths.get(Arguments.NETWORK_FILE));
+
+    private final int hidden;
+    private final Conv start;
+    // Two convolutions per residual block
+    private final Conv[] backBone;
+    private final Conv policyConv;
+    private final Linear policyLinear;
+    private final Conv valueConv;
+    private final Linear valueLinear;
+
+    private Network(int hidden, Conv start, Conv[] backBone, Conv policyConv, Linear policyLinear, Conv valueConv,
+                    Linear valueLinear) {
+        this.hidden = hidden;
+        this.start = start;
+        this.backBone = backBone;
+        this.policyConv = policyConv;
+        this.policyLinear = policyLinear;
+        this.valueConv = valueConv;
+        this.valueLinear = valueLinear;
+    }
+
+    /**
+     * Returns the network configured by {@link Arguments#NETWORK_FILE}, or null if there is no such file.
+     */
+    public static Network get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Reads a network file.
+     *
+     * @param file the file written by {@code python/export.py}
+     * @return the network, or null if the file does not exist
+     * @throws IllegalStateException if the file is not a network for this encoding
+     */
+    public static Network load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Not a network: " + file);
+            }
+            int blocks = in.readInt();
+            int hidden = in.readInt();
+            if (blocks < 0 || blocks > 64 || hidden <= 0 || hidden > MAX_HIDDEN) {
+                throw new IllegalStateException("Invalid network size in " + file + ": " + blocks + " blocks, " + hidden + " channels");
+            }
+            Conv start = Conv.read(in, INPUT_CHANNELS, hidden);
+            Conv[] backBone = new Conv[2 * blocks];
+            for (int i = 0; i < backBone.length; i++) {
+                backBone[i] = Conv.read(in, hidden, hidden);
+            }
+            Conv policyConv = Conv.read(in, hidden, POLICY_CHANNELS);
+            Linear policyLinear = Linear.read(in, POLICY_CHANNELS, ACTIONS);
+            Conv valueConv = Conv.read(in, hidden, VALUE_CHANNELS);
+            Linear valueLinear = Linear.read(in, VALUE_CHANNELS, 1);
+            if (in.read() != -1) {
+                throw new IllegalStateException("Network " + file + " does not match its header");
+            }
+            return new Network(hidden, start, backBone, policyConv, policyLinear, valueConv, valueLinear);
+        } catch (EOFException e) {
+            throw new IllegalStateException("Truncated network: " + file, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of hidden channels.
+     */
+    public int getHidden() {
+        return hidden;
+    }
+
+    /**
+     * Creates the buffers for evaluating up to the given number of positions at once. A scratch must not be shared
+     * by threads.
+     */
+    public Scratch newScratch(int maxBatch) {
+        return new Scratch(maxBatch, hidden);
+    }
+
+    /**
+     * Evaluates a batch of positions.
+     *
+     * @param positions the positions, the low word of position b at index 2 * b and the high word at 2 * b + 1
+     * @param batch the number of positions, at most the size of the scratch
+     * @param priors receives the move probabilities of position b at {@code b * Position.PITS + action}, 0 for the
+     *               illegal actions
+     * @param values receives the expected result of each position for the player to move, from -1 to 1
+     * @param scratch the buffers of the calling thread
+     */
+    public void evaluate(long[] positions, int batch, float[] priors, float[] values, Scratch scratch) {
+        if (batch > scratch.maxBatch) {
+            throw new IllegalArgumentException("Batch of " + batch + " exceeds the scratch of " + scratch.maxBatch);
+        }
+        for (int b = 0; b < batch; b++) {
+            encode(positions[2 * b], positions[2 * b + 1], scratch.input, b * CELLS * INPUT_CHANNELS);
+        }
+
+        float[] x = scratch.a;
+        float[] t = scratch.b;
+        float[] spare = scratch.c;
+        start.apply(scratch.input, x, null, batch);
+        for (int i = 0; i < backBone.length; i += 2) {
+            backBone[i].apply(x, t, null, batch);
+            // The second convolution adds the input of the block before its ReLU, the input becomes the spare array
+            backBone[i + 1].apply(t, spare, x, batch);
+            float[] swap = x;
+            x = spare;
+            spare = swap;
+        }
+
+        policyConv.apply(x, scratch.policyPlanes, null, batch);
+        policyLinear.apply(scratch.policyPlanes, scratch.logits, batch);
+        valueConv.apply(x, scratch.valuePlanes, null, batch);
+        valueLinear.apply(scratch.valuePlanes, scratch.value, batch);
+
+        for (int b = 0; b < batch; b++) {
+            long high = positions[2 * b + 1];
+            softmax(scratch.logits, b * ACTIONS, Position.legalMoveMask(positions[2 * b], high),
+                    Position.isRedToMove(high) ? 0 : 6, priors, b * Position.PITS);
+            values[b] = (float) Math.tanh(scratch.value[b]);
+        }
+    }
+
+    /**
+     * Writes the input planes of a position to {@code input[offset]}, cells outermost and channels innermost.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param input the array receiving the planes
+     * @param offset the index of the first value
+     */
+    public static void encode(long low, long high, float[] input, int offset) {
+        boolean redToMove = Position.isRedToMove(high);
+        float own = (redToMove ? Position.scoreRed(high) : Position.scoreBlue(high)) / (float) (Position.TOTAL_BEANS / 2);
+        float opponent = (redToMove ? Position.scoreBlue(high) : Position.scoreRed(high)) / (float) (Position.TOTAL_BEANS / 2);
+        for (int cell = 0; cell < CELLS; cell++) {
+            int i = offset + cell * INPUT_CHANNELS;
+            input[i] = Position.pit(low, high, cellPit(redToMove, cell)) / 12f;
+            input[i + 1] = own;
+            input[i + 2] = opponent;
+        }
+    }
+
+    /**
+     * Returns the pit shown in a cell of the input planes, see {@link Network}.
+     *
+     * @param redToMove true if the planes are seen by the red player
+     * @param cell the cell, row by row
+     * @return the pit
+     */
+    public static int cellPit(boolean redToMove, int cell) {
+        int first = redToMove ? 0 : 6;
+        return cell < COLUMNS ? first + cell : (first + 17 - cell) % Position.PITS;
+    }
+
+    // Writes the probabilities of the legal actions, the policy entry i belongs to the action first + i
+    private static void softmax(float[] logits, int offset, int legal, int first, float[] priors, int priorOffset) {
+        float max = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < ACTIONS; i++) {
+            if ((legal >>> (first + i) & 1) != 0) {
+                max = Math.max(max, logits[offset + i]);
+            }
+        }
+        float sum = 0;
+        for (int action = 0; action < Position.PITS; action++) {
+            int i = action - first;
+            float p = (legal >>> action & 1) != 0 ? (float) Math.exp(logits[offset + i] - max) : 0;
+            priors[priorOffset + action] = p;
+            sum += p;
+        }
+        if (sum > 0) {
+            for (int action = 0; action < Position.PITS; action++) {
+                priors[priorOffset + action] /= sum;
+            }
+        }
+    }
+
+    /**
+     * The Scratch class holds the activations of a batch, allocated once per evaluating thread.
+     */
+    public static final class Scratch {
+        final int maxBatch;
+        final float[] input;
+        final float[] a;
+        final float[] b;
+        final float[] c;
+        final float[] policyPlanes;
+        final float[] logits;
+        final float[] valuePlanes;
+        final float[] value;
+
+        Scratch(int maxBatch, int hidden) {
+            this.maxBatch = maxBatch;
+            this.input = new float[maxBatch * CELLS * INPUT_CHANNELS];
+            this.a = new float[maxBatch * CELLS * hidden];
+            this.b = new float[maxBatch * CELLS * hidden];
+            this.c = new float[maxBatch * CELLS * hidden];
+            this.policyPlanes = new float[maxBatch * CELLS * POLICY_CHANNELS];
+            this.logits = new float[maxBatch * ACTIONS];
+            this.valuePlanes = new float[maxBatch * CELLS * VALUE_CHANNELS];
+            this.value = new float[maxBatch];
+        }
+    }
+
+    /**
+     * The Conv class is a 3 x 3 convolution with padding 1 and a batch normalization folded into it, followed by a
+     * ReLU. The weights are stored as {@code [kernel row][kernel column][input channel][output channel]}.
+     */
+    static final class Conv {
+        final int inChannels;
+        final int outChannels;
+        final float[] weights;
+        final float[] bias;
+
+        Conv(int inChannels, int outChannels, float[] weights, float[] bias) {
+            this.inChannels = inChannels;
+            this.outChannels = outChannels;
+            this.weights = weights;
+            this.bias = bias;
+        }
+
+        /**
+         * Reads the weights in the PyTorch order {@code [output channel][input channel][kernel row][kernel column]}.
+         */
+        static Conv read(DataInputStream in, int inChannels, int outChannels) throws IOException {
+            float[] weights = new float[9 * inChannels * outChannels];
+            for (int o = 0; o < outChannels; o++) {
+                for (int i = 0; i < inChannels; i++) {
+                    for (int k = 0; k < 9; k++) {
+                        weights[(k * inChannels + i) * outChannels + o] = in.readFloat();
+                    }
+                }
+            }
+            return new Conv(inChannels, outChannels, weights, readFloats(in, outChannels));
+        }
+
+        /**
+         * Applies the convolution and the ReLU to a batch.
+         *
+         * @param in the input activations
+         * @param out the array receiving the output activations
+         * @param residual the activations added before the ReLU, or null
+         * @param batch the number of positions
+         */
+        void apply(float[] in, float[] out, float[] residual, int batch) {
+            int outChannels = this.outChannels;
+            int inChannels = this.inChannels;
+            float[] weights = this.weights;
+            for (int b = 0; b < batch; b++) {
+                for (int y = 0; y < ROWS; y++) {
+                    for (int x = 0; x < COLUMNS; x++) {
+                        int o = (b * CELLS + y * COLUMNS + x) * outChannels;
+                        System.arraycopy(bias, 0, out, o, outChannels);
+                        for (int ky = 0; ky < 3; ky++) {
+                            int yy = y + ky - 1;
+                            if (yy < 0 || yy >= ROWS) {
+                                continue;
+                            }
+                            for (int kx = 0; kx < 3; kx++) {
+                                int xx = x + kx - 1;
+                                if (xx < 0 || xx >= COLUMNS) {
+                                    continue;
+                                }
+                                int i = (b * CELLS + yy * COLUMNS + xx) * inChannels;
+                                int w = (ky * 3 + kx) * inChannels * outChannels;
+                                for (int c = 0; c < inChannels; c++, w += outChannels) {
+                                    float activation = in[i + c];
+                                    // Most inputs of a layer are 0 after the ReLU
+                                    if (activation == 0) {
+                                        continue;
+                                    }
+                                    for (int k = 0; k < outChannels; k++) {
+                                        out[o + k] += activation * weights[w + k];
+                                    }
+                                }
+                            }
+                        }
+                        if (residual != null) {
+                            for (int k = 0; k < outChannels; k++) {
+                                out[o + k] += residual[o + k];
+                            }
+                        }
+                        for (int k = 0; k < outChannels; k++) {
+                            out[o + k] = Math.max(out[o + k], 0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The Linear class is a fully connected layer on the flattened planes of a convolution. The weights are stored as
+     * {@code [output][cell][channel]}, matching the activations, while PyTorch flattens the planes channel by channel.
+     */
+    static final class Linear {
+        final int inputs;
+        final int outputs;
+        final float[] weights;
+        final float[] bias;
+
+        Linear(int inputs, int outputs, float[] weights, float[] bias) {
+            this.inputs = inputs;
+            this.outputs = outputs;
+            this.weights = weights;
+            this.bias = bias;
+        }
+
+        /**
+         * Reads the weights of a layer on the planes of the given number of channels in the PyTorch order
+         * {@code [output][channel][cell]}.
+         */
+        static Linear read(DataInputStream in, int channels, int outputs) throws IOException {
+            int inputs = channels * CELLS;
+            float[] weights = new float[outputs * inputs];
+            for (int o = 0; o < outputs; o++) {
+                for (int c = 0; c < channels; c++) {
+                    for (int cell = 0; cell < CELLS; cell++) {
+                        weights[o * inputs + cell * channels + c] = in.readFloat();
+                    }
+                }
+            }
+            return new Linear(inputs, outputs, weights, readFloats(in, outputs));
+        }
+
+        /**
+         * Applies the layer to a batch.
+         *
+         * @param in the input activations, {@code inputs} per position
+         * @param out the array receiving the outputs, {@code outputs} per position
+         * @param batch the number of positions
+         */
+        void apply(float[] in, float[] out, int batch) {
+            for (int b = 0; b < batch; b++) {
+                int i = b * inputs;
+                for (int o = 0; o < outputs; o++) {
+                    int w = o * inputs;
+                    float sum = 0;
+                    for (int k = 0; k < inputs; k++) {
+                        sum += in[i + k] * weights[w + k];
+                    }
+                    out[b * outputs + o] = sum + bias[o];
+                }
+            }
+        }
+    }
+
+    private static float[] readFloats(DataInputStream in, int count) throws IOException {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readFloat();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,130 @@
+package bohnenspiel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The NetworkEvaluator class evaluates the leaves of all searches with one {@link Network} in batches. A search thread
+ * queues its leaf and waits, while a single evaluator thread takes all queued leaves, up to
+ * {@link Arguments#NETWORK_BATCH}, and runs them through the network at once. The more threads search, e.g., in
+ * tree-parallel mode, the larger the batches and the lower the cost per leaf. A single search thread gets batches of
+ * one.
+ */
+public final class NetworkEvaluator {
+    private static final NetworkEvaluator DEFAULT = Network.get() == null ? null : new NetworkEvaluator(Network.get(), Arguments.NETWORK_BATCH);
+
+    private final Network network;
+    private final int maxBatch;
+    private final BlockingQueue<Request> queue;
+    // One request per search thread, reused for all of its leaves
+    private final ThreadLocal<Request> requests = ThreadLocal.withInitial(Request::new);
+
+    /**
+     * Creates an evaluator and starts its thread.
+     *
+     * @param network the network to evaluate the leaves with
+     * @param maxBatch the maximum number of leaves evaluated at once
+     */
+    public NetworkEvaluator(Network network, int maxBatch) {
+        this.network = network;
+        this.maxBatch = maxBatch;
+        // Every search thread has at most one leaf queued
+        this.queue = new ArrayBlockingQueue<>(1024);
+        Thread thread = new Thread(this::work, "network-evaluator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Returns the evaluator of the network configured by {@link Arguments#NETWORK_FILE}, or null if there is no
+     * network file.
+     */
+    public static NetworkEvaluator get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Evaluates a position with the next batch and waits for the result.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param priors receives the move probabilities indexed by action, 0 for the illegal actions
+     * @return the expected result for the player to move, from -1 to 1
+     */
+    public float evaluate(long low, long high, float[] priors) {
+        Request request = requests.get();
+        request.low = low;
+        request.high = high;
+        request.done = false;
+        try {
+            queue.put(request);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Evaluation interrupted", e);
+        }
+        while (!request.done) {
+            LockSupport.park(this);
+        }
+        if (request.failure != null) {
+            throw new IllegalStateException("Evaluation failed", request.failure);
+        }
+        System.arraycopy(request.priors, 0, priors, 0, Position.PITS);
+        return request.value;
+    }
+
+    private void work() {
+        Network.Scratch scratch = network.newScratch(maxBatch);
+        List<Request> batch = new ArrayList<>(maxBatch);
+        long[] positions = new long[2 * maxBatch];
+        float[] priors = new float[maxBatch * Position.PITS];
+        float[] values = new float[maxBatch];
+        while (true) {
+            batch.clear();
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // The leaves queued while the previous batch was evaluated join this one
+            queue.drainTo(batch, maxBatch - 1);
+            int size = batch.size();
+            for (int i = 0; i < size; i++) {
+                positions[2 * i] = batch.get(i).low;
+                positions[2 * i + 1] = batch.get(i).high;
+            }
+            RuntimeException failure = null;
+            try {
+                network.evaluate(positions, size, priors, values, scratch);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+            for (int i = 0; i < size; i++) {
+                Request request = batch.get(i);
+                if (failure == null) {
+                    System.arraycopy(priors, i * Position.PITS, request.priors, 0, Position.PITS);
+                    request.value = values[i];
+                }
+                request.failure = failure;
+                request.done = true;
+                LockSupport.unpark(request.waiter);
+            }
+        }
+    }
+
+    /**
+     * The Request class is the leaf of a search thread waiting for its evaluation.
+     */
+    private static final class Request {
+        final Thread waiter = Thread.currentThread();
+        final float[] priors = new float[Position.PITS];
+        long low;
+        long high;
+        float value;
+        RuntimeException failure;
+        // Set after the results, which it publishes to the waiting thread
+        volatile boolean done;
+    }
+}
@@ -0,0 +1,562 @@
+package bohnenspiel;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The Node class represents a node in the search tree of MCTS algorithm.
+ * The statistics are updated atomically and the expansion is synchronized, so several threads can share one tree.
+ *
+ * With a {@link TranspositionTable} a node can be the child of several nodes, which turns the tree into a directed
+ * acyclic graph. The parent and the action of a node then refer to the node it was created from, the action of each
+ * edge is kept by the parent, see {@link #getChildAction(int)}.
+ *
+ * A node may be proven, i.e., its result is certain: the game has ended, a player has more than half of the beans,
+ * the position is in the {@link Tablebase}, or the result follows from the proven children by the minimax rules, see
+ * {@link #updateProof()}. The result is a win of either player or a draw. Proofs belong to positions, so they hold for every parent of a shared node.
+ *
+ * With a {@link Network}, a node evaluated by it keeps the move probabilities as priors. Its children are then
+ * expanded in the order of their priors and selected by the PUCT formula instead of UCB, see
+ * {@link UctTables#puct(int, int, float, double)}.
+ */
+public class Node {
+    private static final AtomicIntegerFieldUpdater<Node> VISIT_COUNT = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visitCount");
+    private static final AtomicIntegerFieldUpdater<Node> SUM_WINS_RED = AtomicIntegerFieldUpdater.newUpdater(Node.class, "sumWinsRed");
+    private static final AtomicIntegerFieldUpdater<Node> SUM_WINS_BLUE = AtomicIntegerFieldUpdater.newUpdater(Node.class, "sumWinsBlue");
+    private static final Tablebase TABLEBASE = Tablebase.get();
+    // Values of proof
+    private static final byte UNPROVEN = 0;
+    private static final byte RED_WIN = 1;
+    private static final byte BLUE_WIN = 2;
+    private static final byte DRAW = 3;
+
+    // Reference to the parent node, null for the root
+    private Node parent;
+    // Current state of the game
+    private final State state;
+    // number of times the node has been visited, including pending virtual losses
+    private volatile int visitCount;
+    // Number of wins for the red player from the current node
+    private volatile int sumWinsRed;
+    // Number of wins for the blue player from the current node
+    private volatile int sumWinsBlue;
+    // list of child nodes of the current node, copied on write so that it can be iterated while another thread expands
+    private final List<Node> childNodes;
+    // the actions leading to the child nodes, 4 bits per child in the order of childNodes
+    private volatile long childActions;
+    // the legal actions of the state and those not expanded yet, bit masks as in Position#legalMoveMask(long, long)
+    private final int legalActions;
+    private int untriedActions;
+    private final boolean terminal;
+    private final boolean redToMove;
+    // the certain result of the node, UNPROVEN, RED_WIN, BLUE_WIN or DRAW, it never changes once proven
+    private volatile byte proof;
+    // the move probabilities of the network indexed by action, null if the node has not been evaluated
+    private volatile float[] priors;
+    private final int action; // the action that led to this node
+    // the last walk of a SearchTree that reached this node, see #mark(int)
+    private int mark;
+
+    /**
+     * Constructor for the root node.
+     */
+    public Node(State state) {
+        this.parent = null;
+        this.state = state;
+        this.sumWinsRed = 0;
+        this.sumWinsBlue = 0;
+        this.childNodes = new CopyOnWriteArrayList<>();
+        this.legalActions = state.getLegalMoveMask();
+        this.untriedActions = legalActions;
+        this.terminal = state.isTerminal();
+        this.redToMove = state.getCurrentPlayer();
+        this.proof = initialProof(state);
+        this.action = -1;
+    }
+
+    /**
+     * Constructor for a child node.
+     */
+    public Node(Node parentNode, State state, int action) {
+        this.parent = parentNode;
+        this.state = state;
+        this.sumWinsRed = 0;
+        this.sumWinsBlue = 0;
+        this.childNodes = new CopyOnWriteArrayList<>();
+        this.legalActions = state.getLegalMoveMask();
+        this.untriedActions = legalActions;
+        this.terminal = state.isTerminal();
+        this.redToMove = state.getCurrentPlayer();
+        this.proof = initialProof(state);
+        this.action = action;
+    }
+
+
+    /**
+     * Returns the proof of a new node: the result of an ended or decided game or of a tablebase position.
+     */
+    private static byte initialProof(State state) {
+        long low = state.getLow();
+        long high = state.getHigh();
+        boolean decided = Position.scoreRed(high) > Position.TOTAL_BEANS / 2 || Position.scoreBlue(high) > Position.TOTAL_BEANS / 2;
+        if (decided || Position.isTerminal(low, high)) {
+            if (Position.isDraw(low, high)) {
+                return DRAW;
+            }
+            return Position.isRedWin(low, high) ? RED_WIN : BLUE_WIN;
+        }
+        if (TABLEBASE != null && TABLEBASE.contains(low, high)) {
+            if (TABLEBASE.isDraw(low, high)) {
+                return DRAW;
+            }
+            return TABLEBASE.isRedWin(low, high) ? RED_WIN : BLUE_WIN;
+        }
+        return UNPROVEN;
+    }
+
+    /**
+     * This method checks if the node is fully expanded, i.e., if all its children have been visited.
+     *
+     * @return true if the node is fully expanded, false otherwise
+     */
+    public boolean isFullyExpanded() {
+        return this.childNodes.size() == Integer.bitCount(legalActions);
+    }
+
+    /**
+     * This method checks if the node is terminal, i.e., if the game has ended.
+     *
+     * @return true if the node is terminal, false otherwise
+     */
+    public boolean isTerminal() {
+        return terminal;
+    }
+
+    /**
+     * This method selects the child node with the highest Upper Confidence Bound (UCB) value, or the highest PUCT
+     * value if the node has priors. Proven children are skipped, their results are certain.
+     *
+     * @return the best child node, or null if all children are proven
+     */
+    public Node select() {
+        if (priors != null) {
+            return selectByPriors();
+        }
+        List<Node> children = this.childNodes;
+        double exploration = UctTables.exploration(this.visitCount);
+        Node best = null;
+        double bestUCB = Double.NEGATIVE_INFINITY;
+        // The first of several children with the highest value is selected
+        for (int i = 0, size = children.size(); i < size; i++) {
+            Node child = children.get(i);
+            if (child.proof != UNPROVEN) {
+                continue;
+            }
+            int visits = child.visitCount;
+            if (visits == 0) {
+                // Another thread added the child but has not visited it yet
+                return child;
+            }
+            double ucb = UctTables.ucb(redToMove ? child.sumWinsRed : child.sumWinsBlue, visits, exploration);
+            if (ucb > bestUCB) {
+                bestUCB = ucb;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    // Selects like select(), with the PUCT value of the priors of the actions
+    private Node selectByPriors() {
+        List<Node> children = this.childNodes;
+        float[] priors = this.priors;
+        // The actions are read after the size, they are set before a child is added
+        int size = children.size();
+        long actions = this.childActions;
+        double sqrtVisits = Math.sqrt(this.visitCount);
+        Node best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            Node child = children.get(i);
+            if (child.proof != UNPROVEN) {
+                continue;
+            }
+            int visits = child.visitCount;
+            if (visits == 0) {
+                return child;
+            }
+            float prior = priors[(int) (actions >>> (4 * i) & 0xF)];
+            double value = UctTables.puct(redToMove ? child.sumWinsRed : child.sumWinsBlue, visits, prior, sqrtVisits);
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Proves this node from its children by the minimax rules: the player to move wins if one child is a proven win
+     * for them. If the node is fully expanded and all children are proven, it is a draw if one of them is a draw and
+     * a loss otherwise.
+     *
+     * @return true if the node is proven
+     */
+    public boolean updateProof() {
+        if (proof != UNPROVEN) {
+            return true;
+        }
+        byte win = redToMove ? RED_WIN : BLUE_WIN;
+        byte loss = redToMove ? BLUE_WIN : RED_WIN;
+        List<Node> children = this.childNodes;
+        boolean allProven = !children.isEmpty() && isFullyExpanded();
+        boolean draw = false;
+        for (int i = 0, size = children.size(); i < size; i++) {
+            byte childProof = children.get(i).proof;
+            if (childProof == win) {
+                proof = win;
+                return true;
+            }
+            allProven &= childProof != UNPROVEN;
+            draw |= childProof == DRAW;
+        }
+        if (allProven) {
+            proof = draw ? DRAW : loss;
+        }
+        return allProven;
+    }
+
+    /**
+     * Sets the move probabilities given by the network, see {@link Node}.
+     *
+     * @param priors the probabilities indexed by action
+     */
+    public void setPriors(float[] priors) {
+        this.priors = priors;
+    }
+
+    /**
+     * Returns true if the node has been evaluated by the network.
+     */
+    public boolean hasPriors() {
+        return priors != null;
+    }
+
+    /**
+     * Returns true if the result of this node is certain, see {@link Node}.
+     */
+    public boolean isProven() {
+        return proof != UNPROVEN;
+    }
+
+    /**
+     * Returns the certain result of this node, only valid if it is proven and not a draw.
+     *
+     * @return true if the red player wins
+     */
+    public boolean getProvenResult() {
+        return proof == RED_WIN;
+    }
+
+    /**
+     * Returns true if this node is a proven draw.
+     */
+    public boolean isProvenDraw() {
+        return proof == DRAW;
+    }
+
+    /**
+     * Returns true if this node is a proven win for the given player.
+     *
+     * @param red true for the red player
+     */
+    public boolean isProvenWin(boolean red) {
+        return proof == (red ? RED_WIN : BLUE_WIN);
+    }
+
+    /**
+     * This method calculates the Upper Confidence Bound (UCB) value of a given child node.
+     *
+     * @return the UCB value of the child node
+     */
+    public double calculateUCB() {
+        return calculateUCB(parent);
+    }
+
+    /**
+     * This method calculates the Upper Confidence Bound (UCB) value of this node as a child of the given node.
+     *
+     * @param parent the node this node is selected from
+     * @return the UCB value of the child node
+     */
+    public double calculateUCB(Node parent) {
+        int visitCount = this.visitCount;
+        if (visitCount == 0) {
+            // Another thread added the child but has not visited it yet
+            return Double.POSITIVE_INFINITY;
+        }
+        return UctTables.ucb(parent.redToMove ? sumWinsRed : sumWinsBlue, visitCount, UctTables.exploration(parent.visitCount));
+    }
+
+    /**
+     * This method expands the current node by adding a new child node for a random action that has not been explored yet.
+     *
+     * @return the new child node, or null if another thread has expanded the last action in the meantime
+     */
+    public Node expand() {
+        return expand((TranspositionTable) null);
+    }
+
+    /**
+     * This method expands the current node by a random action that has not been explored yet, or by the one with the
+     * highest prior if the node has priors. If the table contains
+     * the resulting state, its node becomes a child of this node, otherwise a new child node is created and stored.
+     *
+     * @param table the transposition table, or null to always create a new child node
+     * @return the child node, or null if another thread has expanded the last action in the meantime
+     */
+    public synchronized Node expand(TranspositionTable table) {
+        if (untriedActions == 0) {
+            return null;
+        }
+        float[] priors = this.priors;
+        if (priors == null) {
+            return expand(FastRandom.current().nextSetBit(untriedActions), table);
+        }
+        // The untried action with the highest prior comes first
+        int best = Integer.numberOfTrailingZeros(untriedActions);
+        for (int mask = untriedActions; mask != 0; mask &= mask - 1) {
+            int action = Integer.numberOfTrailingZeros(mask);
+            if (priors[action] > priors[best]) {
+                best = action;
+            }
+        }
+        return expand(best, table);
+    }
+
+    /**
+     * This method expands the current node by adding a new child node for the given action.
+     *
+     * @param action the action that has not been explored yet
+     * @return the new child node
+     */
+    public Node expand(int action) {
+        return expand(action, null);
+    }
+
+    /**
+     * This method expands the current node by the given action, sharing the node of the resulting state if the table
+     * contains it.
+     *
+     * @param action the action that has not been explored yet
+     * @param table the transposition table, or null to always create a new child node
+     * @return the child node
+     */
+    public synchronized Node expand(int action, TranspositionTable table) {
+        untriedActions &= ~(1 << action);
+        State nextState = state.applyAction(action);
+        Node childNode = table == null ? null : table.get(nextState);
+        if (childNode == null) {
+            childNode = new Node(this, nextState, action);
+            if (table != null) {
+                table.put(childNode);
+            }
+        }
+        // The action must be visible before the child, readers index the actions by the position in childNodes
+        this.childActions |= (long) action << (4 * this.childNodes.size());
+        this.childNodes.add(childNode);
+        return childNode;
+    }
+
+    /**
+     * Removes all child nodes, their actions count as untried again. Used to prune the tree, see {@link SearchTree}.
+     */
+    public synchronized void clearChildren() {
+        this.untriedActions = legalActions;
+        this.childNodes.clear();
+        this.childActions = 0;
+    }
+
+    /**
+     * Detaches this node from its parent, so that it can become the root of the tree or outlive its parent, and the
+     * rest of the tree can be garbage collected.
+     */
+    public void detach() {
+        this.parent = null;
+    }
+
+    /**
+     * Marks this node as reached by a walk over the tree, see {@link SearchTree}. Not thread-safe, the tree must not
+     * be searched during the walk.
+     *
+     * @param walk the number of the walk
+     * @return true if the walk had not reached this node before
+     */
+    boolean mark(int walk) {
+        if (mark == walk) {
+            return false;
+        }
+        mark = walk;
+        return true;
+    }
+
+    /**
+     * Returns true if this node has been reached by the given walk, see {@link #mark(int)}.
+     */
+    boolean isMarked(int walk) {
+        return mark == walk;
+    }
+
+    /**
+     * Returns the child node reached by the given action.
+     *
+     * @param action the action to look for
+     * @return the child node, or null if the action has not been expanded yet
+     */
+    public Node getChild(int action) {
+        for (int i = 0; i < childNodes.size(); i++) {
+            if (getChildAction(i) == action) {
+                return childNodes.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the action of the edge to a child node.
+     *
+     * @param index the index of the child in {@link #getChildNodes()}
+     * @return the action that leads from this node to the child
+     */
+    public int getChildAction(int index) {
+        return (int) (childActions >>> (4 * index)) & 0xF;
+    }
+
+
+    /**
+     * Returns the action that led to this node from the node it was created from.
+     *
+     * @return The action that led to this node.
+     */
+    public int getAction() {
+        return action;
+    }
+
+    /**
+     * Returns the game state at this node.
+     *
+     * @return The game state at this node.
+     */
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Returns the result of the game state at this node.
+     *
+     * @return The result of the game state at this node.
+     */
+    public boolean getResult() {
+        return state.getResult();
+    }
+
+    /**
+     * Updates the statistics of this node based on the result of a simulation.
+     *
+     * @param isRedWin A boolean indicating whether the red player won in the simulation.
+     */
+    public void updateStats(boolean isRedWin) {
+        updateStats(isRedWin, 0);
+    }
+
+    /**
+     * Updates the statistics of this node based on the result of a simulation and removes the virtual loss that was
+     * added when the node was selected, see {@link #addVirtualLoss(int)}.
+     *
+     * @param isRedWin A boolean indicating whether the red player won in the simulation.
+     * @param virtualLoss The virtual loss to remove.
+     */
+    public void updateStats(boolean isRedWin, int virtualLoss) {
+        if (isRedWin) {
+            SUM_WINS_RED.incrementAndGet(this);
+        } else {
+            SUM_WINS_BLUE.incrementAndGet(this);
+        }
+        VISIT_COUNT.addAndGet(this, 1 - virtualLoss);
+    }
+
+    /**
+     * Adds visits without wins to this node while a simulation through it is running. This lowers its UCB value for
+     * both players, so that other threads sharing the tree prefer different paths.
+     *
+     * @param virtualLoss The number of lost visits to add.
+     */
+    public void addVirtualLoss(int virtualLoss) {
+        VISIT_COUNT.addAndGet(this, virtualLoss);
+    }
+
+    /**
+     * Adds the statistics of another node, e.g., of the same position searched in another tree, and takes over its
+     * proof.
+     *
+     * @param other the node whose statistics are added
+     */
+    public void addStats(Node other) {
+        addStats(other.visitCount, other.sumWinsRed, other.sumWinsBlue);
+        if (other.proof != UNPROVEN) {
+            this.proof = other.proof;
+        }
+    }
+
+    /**
+     * Adds visits and wins to the statistics of this node.
+     *
+     * @param visits the number of visits to add
+     * @param winsRed the number of wins for the red player to add
+     * @param winsBlue the number of wins for the blue player to add
+     */
+    public void addStats(int visits, int winsRed, int winsBlue) {
+        SUM_WINS_RED.addAndGet(this, winsRed);
+        SUM_WINS_BLUE.addAndGet(this, winsBlue);
+        VISIT_COUNT.addAndGet(this, visits);
+    }
+
+    /**
+     * Returns the parent of this node.
+     *
+     * @return The parent of this node.
+     */
+    public Node getParent() {
+        return parent;
+    }
+
+    /**
+     * Returns the child nodes of this node.
+     *
+     * @return The child nodes of this node.
+     */
+    public List<Node> getChildNodes() {
+        return childNodes;
+    }
+
+    /**
+     * Returns the number of times this node has been visited.
+     *
+     * @return The number of times this node has been visited.
+     */
+    public int getVisitCount() {
+        return visitCount;
+    }
+
+    /**
+     * Returns the number of wins of the given player from this node.
+     *
+     * @param red true for the red player
+     * @return The number of wins of the player.
+     */
+    public int getSumWins(boolean red) {
+        return red ? sumWinsRed : sumWinsBlue;
+    }
+
+}
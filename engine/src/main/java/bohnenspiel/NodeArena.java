@@ -0,0 +1,231 @@
+package bohnenspiel;
+
+/**
+ * The NodeArena class stores a search tree in flat primitive arrays instead of {@link Node} objects.
+ * Nodes are addressed by int IDs, children are linked through first-child and next-sibling indices and the
+ * untried actions of a node are kept as a bit mask, see {@link Position#legalMoveMask(long, long)}.
+ *
+ * The arrays are allocated once with a hard node capacity and are reused for every search after {@link #reset()},
+ * so growing the tree never allocates. The arena is not thread-safe.
+ */
+public final class NodeArena {
+    public static final int NONE = -1;
+
+    private final int capacity;
+    // number of times the node has been visited
+    private final int[] visitCount;
+    // Number of wins for the red player from the node
+    private final int[] sumWinsRed;
+    // Number of wins for the blue player from the node
+    private final int[] sumWinsBlue;
+    // packed positions, low word at 2 * id and high word at 2 * id + 1
+    private final long[] positions;
+    private final int[] parent;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    // bit mask of the actions that have not been expanded yet
+    private final short[] untriedActions;
+    // the action that led to the node
+    private final byte[] action;
+    private int size;
+
+    /**
+     * Creates an arena for at most the given number of nodes.
+     *
+     * @param capacity the maximum number of nodes
+     */
+    public NodeArena(int capacity) {
+        this.capacity = capacity;
+        this.visitCount = new int[capacity];
+        this.sumWinsRed = new int[capacity];
+        this.sumWinsBlue = new int[capacity];
+        this.positions = new long[2 * capacity];
+        this.parent = new int[capacity];
+        this.firstChild = new int[capacity];
+        this.nextSibling = new int[capacity];
+        this.untriedActions = new short[capacity];
+        this.action = new byte[capacity];
+    }
+
+    /**
+     * Removes all nodes. The arrays are kept and overwritten by the next search.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Removes all nodes and adds a root node for the given state.
+     *
+     * @param state the state of the root
+     * @return the ID of the root node
+     */
+    public int createRoot(State state) {
+        reset();
+        return add(NONE, -1, state.getLow(), state.getHigh());
+    }
+
+    /**
+     * Adds a child node for an untried action of the given node.
+     *
+     * @param node the ID of the parent node
+     * @param childAction the untried action that leads to the child
+     * @return the ID of the new child node, or {@link #NONE} if the arena is full
+     */
+    public int addChild(int node, int childAction) {
+        if (size == capacity) {
+            return NONE;
+        }
+        int child = size;
+        Position.applyAction(positions[2 * node], positions[2 * node + 1], childAction, positions, 2 * child);
+        untriedActions[node] &= (short) ~(1 << childAction);
+        add(node, childAction, positions[2 * child], positions[2 * child + 1]);
+        nextSibling[child] = firstChild[node];
+        firstChild[node] = child;
+        return child;
+    }
+
+    private int add(int parentNode, int nodeAction, long low, long high) {
+        int node = size++;
+        visitCount[node] = 0;
+        sumWinsRed[node] = 0;
+        sumWinsBlue[node] = 0;
+        positions[2 * node] = low;
+        positions[2 * node + 1] = high;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        untriedActions[node] = (short) Position.legalMoveMask(low, high);
+        action[node] = (byte) nodeAction;
+        return node;
+    }
+
+    /**
+     * Updates the statistics of a node based on the result of a simulation.
+     *
+     * @param node the ID of the node
+     * @param isRedWin whether the red player won in the simulation
+     */
+    public void updateStats(int node, boolean isRedWin) {
+        if (isRedWin) {
+            sumWinsRed[node]++;
+        } else {
+            sumWinsBlue[node]++;
+        }
+        visitCount[node]++;
+    }
+
+    /**
+     * Returns true if the game has ended in the position of the node.
+     */
+    public boolean isTerminal(int node) {
+        return untriedActions[node] == 0 && firstChild[node] == NONE;
+    }
+
+    /**
+     * Returns true if all actions of the node have been expanded.
+     */
+    public boolean isFullyExpanded(int node) {
+        return untriedActions[node] == 0;
+    }
+
+    /**
+     * Returns the number of nodes in the arena.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of nodes.
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of times the node has been visited.
+     */
+    public int getVisitCount(int node) {
+        return visitCount[node];
+    }
+
+    /**
+     * Returns the number of wins for the red player from the node.
+     */
+    public int getSumWinsRed(int node) {
+        return sumWinsRed[node];
+    }
+
+    /**
+     * Returns the number of wins for the blue player from the node.
+     */
+    public int getSumWinsBlue(int node) {
+        return sumWinsBlue[node];
+    }
+
+    /**
+     * Returns the low word of the packed position of the node.
+     */
+    public long getLow(int node) {
+        return positions[2 * node];
+    }
+
+    /**
+     * Returns the high word of the packed position of the node.
+     */
+    public long getHigh(int node) {
+        return positions[2 * node + 1];
+    }
+
+    /**
+     * Returns the ID of the parent node, or {@link #NONE} for the root.
+     */
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Returns the ID of the most recently expanded child, or {@link #NONE} if there is none.
+     */
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    /**
+     * Returns the ID of the next child of the same parent, or {@link #NONE} if there is none.
+     */
+    public int getNextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    /**
+     * Returns the bit mask of the actions that have not been expanded yet.
+     */
+    public int getUntriedActions(int node) {
+        return untriedActions[node];
+    }
+
+    /**
+     * Returns the action that led to the node, or -1 for the root.
+     */
+    public int getAction(int node) {
+        return action[node];
+    }
+
+    /**
+     * Converts a node and its children into {@link Node} objects, e.g., to pick the best action of a finished search
+     * with {@link MCTS#getBestActionFromFinishedSimulationRootNode(Node)}.
+     *
+     * @param node the ID of the node
+     * @return a new node with one child per expanded action, holding the statistics of the arena
+     */
+    public Node toNode(int node) {
+        Node result = new Node(new State(getLow(node), getHigh(node)));
+        result.addStats(visitCount[node], sumWinsRed[node], sumWinsBlue[node]);
+        for (int child = firstChild[node]; child != NONE; child = nextSibling[child]) {
+            result.expand(action[child]).addStats(visitCount[child], sumWinsRed[child], sumWinsBlue[child]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,122 @@
+package bohnenspiel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The OpeningBook class looks up precomputed moves for the first plies of a game. The book is written by
+ * {@link OpeningBookBuilder} and memory-mapped, a lookup is a binary search over the entries.
+ *
+ * After a header of {@link #HEADER_BYTES} bytes, the file holds one entry per position, sorted by the
+ * {@link Zobrist} hash of the position: the hash (8 bytes), the action (2 bytes) and the share of the root visits
+ * of the action in per mille (2 bytes).
+ */
+public final class OpeningBook {
+    // "BSOB" in ASCII, followed by the version and the number of entries
+    static final int MAGIC = 0x42534F42;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 12;
+    static final int ENTRY_BYTES = 12;
+
+    private static final OpeningBook DEFAULT = load(Paths.get(Arguments.OPENING_BOOK_FILE));
+
+    private final MappedByteBuffer entries;
+    private final int size;
+
+    private OpeningBook(MappedByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Returns the opening book configured by {@link Arguments#OPENING_BOOK_FILE}, or null if there is no such file.
+     */
+    public static OpeningBook get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Memory-maps an opening book file.
+     *
+     * @param file the file written by {@link OpeningBookBuilder}
+     * @return the opening book, or null if the file does not exist
+     * @throws IllegalStateException if the file is not an opening book
+     */
+    public static OpeningBook load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not an opening book: " + file);
+            }
+            int size = buffer.getInt(8);
+            if (channel.size() != HEADER_BYTES + (long) size * ENTRY_BYTES) {
+                throw new IllegalStateException("Truncated opening book: " + file);
+            }
+            return new OpeningBook(buffer, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the book move for a state.
+     *
+     * @param state the state to look up
+     * @return the action, or -1 if the state is not in the book or the stored action is not legal in it
+     */
+    public int lookup(State state) {
+        int entry = find(Zobrist.hash(state));
+        if (entry < 0) {
+            return -1;
+        }
+        // A hash collision or a book of older rules may store a move that is illegal here, the search decides then
+        int action = entries.getShort(HEADER_BYTES + entry * ENTRY_BYTES + 8);
+        return action >= 0 && action < Position.PITS && (state.getLegalMoveMask() >>> action & 1) != 0 ? action : -1;
+    }
+
+    /**
+     * Returns the share of the root visits of the book move for a state in per mille, a measure of its confidence.
+     *
+     * @param state the state to look up
+     * @return the share, or 0 if the state is not in the book
+     */
+    public int getShare(State state) {
+        int entry = find(Zobrist.hash(state));
+        return entry < 0 ? 0 : entries.getShort(HEADER_BYTES + entry * ENTRY_BYTES + 10);
+    }
+
+    /**
+     * Returns the number of positions in the book.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int find(long hash) {
+        int lo = 0;
+        int hi = size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long key = entries.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (key < hash) {
+                lo = mid + 1;
+            } else if (key > hash) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
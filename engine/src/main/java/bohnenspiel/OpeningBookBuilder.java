@@ -0,0 +1,109 @@
+package bohnenspiel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The OpeningBookBuilder class searches the positions of the first plies offline and writes the best moves to a
+ * file for {@link OpeningBook}.
+ *
+ * The book is built for both players. Where the player of the book is to move, only the book move is followed,
+ * otherwise every reply of the opponent. Each position is searched once with the configured search mode and a
+ * longer time budget than during a game, see {@link Arguments}.
+ *
+ * Usage: {@code java bohnenspiel.OpeningBookBuilder <plies> <milliseconds per position> [file]}
+ */
+public class OpeningBookBuilder {
+    // The entries by hash, sorted as required by the file format
+    private final Map<Long, int[]> entries = new TreeMap<>();
+    private final double millis;
+
+    /**
+     * Creates a builder that searches each position for the given time.
+     */
+    public OpeningBookBuilder(double millis) {
+        this.millis = millis;
+    }
+
+    /**
+     * Main method of the builder.
+     * @param args the number of plies, the search time per position in milliseconds and optionally the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: OpeningBookBuilder <plies> <milliseconds per position> [file]");
+            return;
+        }
+        int plies = Integer.parseInt(args[0]);
+        double millis = Double.parseDouble(args[1]);
+        Path file = Paths.get(args.length > 2 ? args[2] : Arguments.OPENING_BOOK_FILE);
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(millis);
+        builder.add(new State(), plies, true);
+        builder.add(new State(), plies, false);
+        builder.write(file);
+        System.out.println("Geschrieben: " + file + " (" + builder.entries.size() + " Stellungen)");
+    }
+
+    /**
+     * Adds the book moves for one player to the book.
+     *
+     * @param state the state to start from
+     * @param plies the number of plies to cover from the state
+     * @param red true for the book of the red player
+     */
+    public void add(State state, int plies, boolean red) {
+        if (plies == 0 || state.isTerminal()) {
+            return;
+        }
+        if (state.getCurrentPlayer() != red) {
+            for (int action : state.getPossibleActions()) {
+                add(state.applyAction(action), plies - 1, red);
+            }
+            return;
+        }
+
+        long hash = Zobrist.hash(state);
+        int[] entry = entries.get(hash);
+        if (entry == null) {
+            SearchTree tree = new SearchTree(state, new TranspositionTable(Arguments.TRANSPOSITION_TABLE_SIZE,
+                    Arguments.TRANSPOSITION_REPLACEMENT), Arguments.MAX_TREE_NODES);
+            Node root = MCTS.search(tree, TimeManager.fixed(millis));
+            int action = MCTS.getBestActionFromFinishedSimulationRootNode(root);
+            Node child = root.getChild(action);
+            int share = (int) (1000L * child.getVisitCount() / Math.max(1, root.getVisitCount()));
+            entry = new int[]{action, share};
+            entries.put(hash, entry);
+            System.out.println(state + "\n-> Feld " + (action + 1) + " (" + share + " Promille)");
+        }
+        add(state.applyAction(entry[0]), plies - 1, red);
+    }
+
+    /**
+     * Writes the book with the header read by {@link OpeningBook#load(Path)}.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path file) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<Long, int[]> entry : entries.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeShort(entry.getValue()[0]);
+                out.writeShort(entry.getValue()[1]);
+            }
+        }
+    }
+}
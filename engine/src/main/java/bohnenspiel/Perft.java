@@ -0,0 +1,134 @@
+package bohnenspiel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * The Perft class counts the move sequences of a given length from a position, i.e., the leaves of the full game tree
+ * to that depth. Positions in which the player to move has no beans end a sequence early and are not counted.
+ *
+ * The counts check the rules in {@link Position} against known values after every change, and the time they take
+ * measures the raw speed of move generation and making a move. The subtrees near the root are counted in parallel on
+ * a {@link ForkJoinPool}, the deeper levels recursively on the packed positions without allocation.
+ *
+ * Usage: {@code java bohnenspiel.Perft <depth> [<12 pits> <red score> <blue score> <red|blue>]}
+ */
+public class Perft {
+    // Subtrees of at most this depth are counted sequentially by one task
+    private static final int SEQUENTIAL_DEPTH = 6;
+
+    private Perft() {
+    }
+
+    /**
+     * Main method of the perft counter.
+     * @param args the depth and optionally the position to count from, the initial position otherwise
+     */
+    public static void main(String[] args) {
+        if (args.length != 1 && args.length != 16) {
+            System.out.println("Usage: Perft <depth> [<12 pits> <red score> <blue score> <red|blue>]");
+            return;
+        }
+        int maxDepth = Integer.parseInt(args[0]);
+        State state = new State();
+        if (args.length == 16) {
+            int[] board = new int[Position.PITS];
+            for (int i = 0; i < Position.PITS; i++) {
+                board[i] = Integer.parseInt(args[1 + i]);
+            }
+            state = new State(board, Integer.parseInt(args[13]), Integer.parseInt(args[14]), args[15].equals("red"));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Arguments.THREADS);
+        try {
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                long start = System.nanoTime();
+                long nodes = count(pool, state.getLow(), state.getHigh(), depth);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("Tiefe %d: %d Knoten in %.3f s (%.0f Knoten/s)%n", depth, nodes, seconds, nodes / seconds);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the move sequences of the given length from a position on the threads of a pool.
+     *
+     * @param pool the pool that counts the subtrees
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param depth the number of moves
+     * @return the number of move sequences
+     */
+    public static long count(ForkJoinPool pool, long low, long high, int depth) {
+        return pool.invoke(new Subtree(low, high, depth));
+    }
+
+    /**
+     * Counts the move sequences of the given length from a position on the calling thread.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param depth the number of moves
+     * @return the number of move sequences
+     */
+    public static long count(long low, long high, int depth) {
+        return depth == 0 ? 1 : count(low, high, depth, new long[2 * depth]);
+    }
+
+    // The children of the position at depth d are written to next[2 * (d - 1)] and next[2 * d - 1]
+    private static long count(long low, long high, int depth, long[] next) {
+        int mask = Position.legalMoveMask(low, high);
+        if (depth == 1) {
+            return Integer.bitCount(mask);
+        }
+        int offset = 2 * (depth - 1);
+        long nodes = 0;
+        while (mask != 0) {
+            Position.applyAction(low, high, Integer.numberOfTrailingZeros(mask), next, offset);
+            nodes += count(next[offset], next[offset + 1], depth - 1, next);
+            mask &= mask - 1;
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts a subtree, forking a task for every child while the subtree is deeper than {@link #SEQUENTIAL_DEPTH}.
+     */
+    private static class Subtree extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long low;
+        private final long high;
+        private final int depth;
+
+        Subtree(long low, long high, int depth) {
+            this.low = low;
+            this.high = high;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH) {
+                return count(low, high, depth);
+            }
+            long[] next = new long[2];
+            Subtree[] children = new Subtree[6];
+            int size = 0;
+            for (int mask = Position.legalMoveMask(low, high); mask != 0; mask &= mask - 1) {
+                Position.applyAction(low, high, Integer.numberOfTrailingZeros(mask), next, 0);
+                children[size++] = new Subtree(next[0], next[1], depth - 1);
+            }
+            for (int i = 1; i < size; i++) {
+                children[i].fork();
+            }
+            long nodes = size == 0 ? 0 : children[0].compute();
+            for (int i = 1; i < size; i++) {
+                nodes += children[i].join();
+            }
+            return nodes;
+        }
+    }
+}
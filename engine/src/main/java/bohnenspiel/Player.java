@@ -0,0 +1,33 @@
+package bohnenspiel;
+
+/**
+ * The Player interface is implemented by everything that can choose moves in a game, e.g., in a {@link Tournament}.
+ * Players may keep state between moves and are not thread-safe.
+ */
+public interface Player {
+    /**
+     * Chooses the action to play in the given state.
+     *
+     * @param state the current state, the game has not ended
+     * @return the chosen action
+     */
+    int chooseAction(State state);
+
+    /**
+     * Called before the first move of a game, so that players reused for several games can forget the previous one.
+     */
+    default void newGame() {
+    }
+
+    /**
+     * Returns the number of search iterations of the last choice, 0 for players that do not search with MCTS.
+     */
+    default long getLastIterations() {
+        return 0;
+    }
+
+    /**
+     * Returns a short description of the player.
+     */
+    String getName();
+}
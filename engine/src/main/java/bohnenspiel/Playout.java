@@ -0,0 +1,66 @@
+package bohnenspiel;
+
+/**
+ * The Playout class runs light playouts, i.e., games with uniformly random moves, directly on the packed
+ * encoding of {@link Position}. A playout reuses the scratch buffer of its instance and does not allocate.
+ * Instances are not thread-safe, every search thread uses its own, see {@link #current()}.
+ */
+public final class Playout {
+    private static final ThreadLocal<Playout> CURRENT = ThreadLocal.withInitial(() -> new Playout(FastRandom.current()));
+
+    private final FastRandom random;
+    // Endgame tablebase ending the playout with the exact result, null if there is no tablebase file
+    private final Tablebase tablebase = Tablebase.get();
+    // Receives the position after each move of the playout
+    private final long[] scratch = new long[2];
+
+    /**
+     * Creates a playout engine drawing its moves from the given generator.
+     */
+    public Playout(FastRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Returns the playout engine of the current thread.
+     */
+    public static Playout current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Plays random moves from the given state until the game ends or the maximum depth is reached.
+     *
+     * @param state the state to start from
+     * @param maxDepth the maximum number of moves to play
+     * @return the result of the final position, as returned by {@link State#getResult()}
+     */
+    public boolean run(State state, int maxDepth) {
+        return run(state.getLow(), state.getHigh(), maxDepth);
+    }
+
+    /**
+     * Plays random moves from the given packed position until the game ends or the maximum depth is reached. Once
+     * the position is in the endgame tablebase, its exact result is returned instead.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param maxDepth the maximum number of moves to play
+     * @return true if the red player (presumably) wins the final position
+     */
+    public boolean run(long low, long high, int maxDepth) {
+        for (int depth = 0; depth < maxDepth; depth++) {
+            if (tablebase != null && tablebase.contains(low, high)) {
+                return tablebase.isRedWin(low, high);
+            }
+            int moves = Position.legalMoveMask(low, high);
+            if (moves == 0) {
+                break;
+            }
+            Position.applyAction(low, high, random.nextSetBit(moves), scratch, 0);
+            low = scratch[0];
+            high = scratch[1];
+        }
+        return Position.isRedWin(low, high);
+    }
+}
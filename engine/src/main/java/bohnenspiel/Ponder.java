@@ -0,0 +1,54 @@
+package bohnenspiel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The Ponder class keeps searching the tree in a background thread while the opponent is thinking.
+ * The search runs on the node after our own move, so every child it grows is a possible opponent move whose subtree
+ * can be promoted to the root once the opponent has moved.
+ */
+public class Ponder {
+    private final Node root;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final Thread thread;
+    private final int visitsBefore;
+
+    private Ponder(SearchTree tree) {
+        this.root = tree.getRoot();
+        this.visitsBefore = root.getVisitCount();
+        this.thread = new Thread(() -> MCTS.ponder(tree, stopped), "mcts-ponder");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts pondering on the root of the given tree.
+     *
+     * @param tree the tree whose root is the node after our own move
+     * @return the running ponder search
+     */
+    public static Ponder start(SearchTree tree) {
+        Ponder ponder = new Ponder(tree);
+        ponder.thread.start();
+        return ponder;
+    }
+
+    /**
+     * Stops the search and waits until the background thread has finished its last iteration, so that the tree can
+     * be used by the caller afterward.
+     *
+     * @return the number of iterations searched while pondering
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int stop() throws InterruptedException {
+        stopped.set(true);
+        thread.join();
+        return root.getVisitCount() - visitsBefore;
+    }
+
+    /**
+     * Returns the node the search runs on.
+     */
+    public Node getRoot() {
+        return root;
+    }
+}
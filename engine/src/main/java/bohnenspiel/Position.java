@@ -0,0 +1,260 @@
+package bohnenspiel;
+
+/**
+ * The Position class contains the packed primitive encoding of a game position and the rules operating on it.
+ *
+ * A position is stored in two longs. Each pit takes one byte, which is enough because the game only has 72 beans:
+ * <ul>
+ *     <li>low word: pits 0 to 7, pit i in bits 8*i to 8*i+7</li>
+ *     <li>high word: pits 8 to 11 in bits 0 to 31, the red score in bits 32 to 39, the blue score in bits 40 to 47
+ *     and the side to move in bit 48 (set if it is the red player's turn)</li>
+ * </ul>
+ * All methods are static and never allocate, so they can be used in the hot paths of the search.
+ */
+public final class Position {
+    public static final int PITS = 12;
+    public static final int TOTAL_BEANS = 72;
+
+    private static final int RED_SCORE_SHIFT = 32;
+    private static final int BLUE_SCORE_SHIFT = 40;
+    private static final long RED_TO_MOVE = 1L << 48;
+    private static final long BYTE = 0xFFL;
+
+    // One bean in every pit of a word, used to sow full laps around the board at once
+    private static final long LAP_LOW = 0x0101010101010101L;
+    private static final long LAP_HIGH = 0x01010101L;
+    // Beans added to the pits following an action for the remaining 0 to 11 beans of the last lap
+    private static final long[] SOW_LOW = new long[PITS * PITS];
+    private static final long[] SOW_HIGH = new long[PITS * PITS];
+    // Bit set of the pit counts that are captured (2, 4 and 6)
+    private static final int CAPTURE_COUNTS = (1 << 2) | (1 << 4) | (1 << 6);
+
+    public static final long INITIAL_LOW = 6 * LAP_LOW;
+    public static final long INITIAL_HIGH = 6 * LAP_HIGH | RED_TO_MOVE;
+
+    static {
+        for (int action = 0; action < PITS; action++) {
+            for (int rest = 0; rest < PITS; rest++) {
+                long low = 0;
+                long high = 0;
+                for (int k = 1; k <= rest; k++) {
+                    int pit = (action + k) % PITS;
+                    if (pit < 8) {
+                        low += 1L << (pit << 3);
+                    } else {
+                        high += 1L << ((pit - 8) << 3);
+                    }
+                }
+                SOW_LOW[action * PITS + rest] = low;
+                SOW_HIGH[action * PITS + rest] = high;
+            }
+        }
+    }
+
+    private Position() {
+    }
+
+    /**
+     * Packs the pits 0 to 7 of a board into the low word.
+     *
+     * @param board the board with 12 pits
+     * @return the low word of the position
+     */
+    public static long packLow(int[] board) {
+        long low = 0;
+        for (int i = 0; i < 8; i++) {
+            low |= (long) board[i] << (i << 3);
+        }
+        return low;
+    }
+
+    /**
+     * Packs the pits 8 to 11 of a board, both scores and the side to move into the high word.
+     *
+     * @param board the board with 12 pits
+     * @param scoreRed the score of the red player
+     * @param scoreBlue the score of the blue player
+     * @param redToMove true if it is the red player's turn
+     * @return the high word of the position
+     */
+    public static long packHigh(int[] board, int scoreRed, int scoreBlue, boolean redToMove) {
+        long high = 0;
+        for (int i = 8; i < PITS; i++) {
+            high |= (long) board[i] << ((i - 8) << 3);
+        }
+        high |= (long) scoreRed << RED_SCORE_SHIFT;
+        high |= (long) scoreBlue << BLUE_SCORE_SHIFT;
+        return redToMove ? high | RED_TO_MOVE : high;
+    }
+
+    /**
+     * Writes the 12 pits of a position into the given board array.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param board the array to write the pits to
+     */
+    public static void unpack(long low, long high, int[] board) {
+        for (int i = 0; i < 8; i++) {
+            board[i] = (int) (low >>> (i << 3) & BYTE);
+        }
+        for (int i = 8; i < PITS; i++) {
+            board[i] = (int) (high >>> ((i - 8) << 3) & BYTE);
+        }
+    }
+
+    /**
+     * Returns the number of beans in a pit.
+     */
+    public static int pit(long low, long high, int pit) {
+        return pit < 8 ? (int) (low >>> (pit << 3) & BYTE) : (int) (high >>> ((pit - 8) << 3) & BYTE);
+    }
+
+    /**
+     * Returns the score of the red player.
+     */
+    public static int scoreRed(long high) {
+        return (int) (high >>> RED_SCORE_SHIFT & BYTE);
+    }
+
+    /**
+     * Returns the score of the blue player.
+     */
+    public static int scoreBlue(long high) {
+        return (int) (high >>> BLUE_SCORE_SHIFT & BYTE);
+    }
+
+    /**
+     * Returns true if it is the red player's turn.
+     */
+    public static boolean isRedToMove(long high) {
+        return (high & RED_TO_MOVE) != 0;
+    }
+
+    /**
+     * Returns the number of beans on the red player's side (pits 0 to 5).
+     */
+    public static int beansRed(long low) {
+        // Pits 0 to 5 are the six lowest bytes of the low word. The byte sum of at most 72 beans cannot overflow.
+        long x = low & 0xFFFFFFFFFFFFL;
+        return (int) ((x * LAP_LOW) >>> 40 & BYTE);
+    }
+
+    /**
+     * Returns the number of beans on the blue player's side (pits 6 to 11).
+     */
+    public static int beansBlue(long low, long high) {
+        long x = (low >>> 48) | (high & 0xFFFFFFFFL) << 16;
+        return (int) ((x * LAP_LOW) >>> 40 & BYTE);
+    }
+
+    /**
+     * Returns a bit mask of the legal actions, bit i is set if action i can be played.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @return the legal move mask, 0 if the position is terminal
+     */
+    public static int legalMoveMask(long low, long high) {
+        int first = isRedToMove(high) ? 0 : 6;
+        int mask = 0;
+        for (int i = first; i < first + 6; i++) {
+            if (pit(low, high, i) != 0) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Returns true if the player to move has no beans left, i.e., no more valid moves are possible.
+     */
+    public static boolean isTerminal(long low, long high) {
+        return isRedToMove(high) ? beansRed(low) == 0 : beansBlue(low, high) == 0;
+    }
+
+    /**
+     * Return true if the red player (presumably) wins, false if the blue player (presumably) wins.
+     * This is the packed counterpart of {@link State#getResult()}.
+     */
+    public static boolean isRedWin(long low, long high) {
+        int scoreRed = scoreRed(high);
+        int scoreBlue = scoreBlue(high);
+        if (scoreRed > TOTAL_BEANS / 2) {
+            return true;
+        }
+        if (scoreBlue > TOTAL_BEANS / 2) {
+            return false;
+        }
+
+        if (Arguments.USE_STARVATION) {
+            // Heuristic for the player with the most beans in their store
+            return scoreRed + beansRed(low) >= scoreBlue + beansBlue(low, high);
+        }
+
+        return scoreRed >= scoreBlue;
+    }
+
+    /**
+     * Returns true if the game (presumably) ends in a draw: neither player has more than half of the beans and the
+     * scores are equal by the rule of {@link #isRedWin(long, long)}, which counts a draw as a win of the red player.
+     */
+    public static boolean isDraw(long low, long high) {
+        int scoreRed = scoreRed(high);
+        int scoreBlue = scoreBlue(high);
+        if (scoreRed > TOTAL_BEANS / 2 || scoreBlue > TOTAL_BEANS / 2) {
+            return false;
+        }
+        if (Arguments.USE_STARVATION) {
+            return scoreRed + beansRed(low) == scoreBlue + beansBlue(low, high);
+        }
+        return scoreRed == scoreBlue;
+    }
+
+    /**
+     * Applies an action and writes the resulting position to {@code out[offset]} (low word) and
+     * {@code out[offset + 1]} (high word). The action is not validated, see {@link State#applyAction(int)}.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param action the pit to sow from
+     * @param out the array receiving the resulting position
+     * @param offset the index of the low word in {@code out}
+     */
+    public static void applyAction(long low, long high, int action, long[] out, int offset) {
+        int beans = pit(low, high, action);
+        if (action < 8) {
+            low &= ~(BYTE << (action << 3));
+        } else {
+            high &= ~(BYTE << ((action - 8) << 3));
+        }
+
+        // Sow the beans counter-clockwise: every full lap adds one bean to each pit, including the emptied one
+        int laps = beans / PITS;
+        int rest = beans - laps * PITS;
+        low += laps * LAP_LOW + SOW_LOW[action * PITS + rest];
+        high += laps * LAP_HIGH + SOW_HIGH[action * PITS + rest];
+
+        // Capture backwards from the last pit as long as the pits hold 2, 4 or 6 beans
+        int captured = 0;
+        int i = (action + beans) % PITS;
+        while (true) {
+            int shift = i < 8 ? i << 3 : (i - 8) << 3;
+            int count = (int) ((i < 8 ? low : high) >>> shift & BYTE);
+            if (count > 6 || (CAPTURE_COUNTS >>> count & 1) == 0) {
+                break;
+            }
+            captured += count;
+            if (i < 8) {
+                low &= ~(BYTE << shift);
+            } else {
+                high &= ~(BYTE << shift);
+            }
+            i = (i == 0) ? 11 : i - 1;
+        }
+
+        high += (long) captured << (isRedToMove(high) ? RED_SCORE_SHIFT : BLUE_SCORE_SHIFT);
+        out[offset] = low;
+        out[offset + 1] = high ^ RED_TO_MOVE;
+    }
+}
@@ -0,0 +1,25 @@
+package bohnenspiel;
+
+/**
+ * The RandomPlayer class chooses uniformly random legal actions.
+ */
+public class RandomPlayer implements Player {
+    private final FastRandom random;
+
+    /**
+     * Creates a random player drawing from the given generator.
+     */
+    public RandomPlayer(FastRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int chooseAction(State state) {
+        return random.nextSetBit(state.getLegalMoveMask());
+    }
+
+    @Override
+    public String getName() {
+        return "random";
+    }
+}
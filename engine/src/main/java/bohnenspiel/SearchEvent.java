@@ -0,0 +1,74 @@
+package bohnenspiel;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The SearchEvent class is the Java Flight Recorder event of the search for one move, see {@link SearchMetrics}.
+ * The event lasts from the start to the end of the search, so a recording shows it next to the garbage collections
+ * and safepoints of the same window.
+ *
+ * Record with {@code java -XX:StartFlightRecording=filename=search.jfr ...} and read with
+ * {@code jfr print --events bohnenspiel.Search search.jfr}.
+ */
+@Name("bohnenspiel.Search")
+@Label("MCTS Search")
+@Category("Bohnenspiel")
+@Description("The search for one move")
+class SearchEvent extends Event {
+    @Label("Game")
+    String gameId;
+
+    @Label("Move")
+    @Description("The number of our own moves in the game, starting at 1")
+    int move;
+
+    @Label("Field")
+    @Description("The chosen field, 1 to 12")
+    int field;
+
+    @Label("Iterations")
+    int iterations;
+
+    @Label("Playouts per Second")
+    double playoutsPerSecond;
+
+    @Label("Tree Nodes")
+    int nodes;
+
+    @Label("Maximum Depth")
+    int maxDepth;
+
+    @Label("Average Depth")
+    double averageDepth;
+
+    @Label("Reused Visits")
+    @Description("The visits of the root taken over from the previous move")
+    int reusedVisits;
+
+    @Label("Root Visits")
+    @Description("The visits of the root children as field:visits")
+    String rootVisits;
+
+    @Label("Time to First Iteration")
+    @Description("The time from noticing the opponent's move to the start of the search")
+    @Timespan(Timespan.NANOSECONDS)
+    long firstIteration;
+
+    @Label("Allocated")
+    @Description("The bytes allocated by all threads from noticing the opponent's move to the end of the search")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    @Label("GC Pause")
+    @Timespan(Timespan.MILLISECONDS)
+    long gcPause;
+
+    @Label("GC Count")
+    long gcCount;
+}
@@ -0,0 +1,280 @@
+package bohnenspiel;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The SearchMetrics class records the metrics of the search for one move: the iterations and playouts per second,
+ * the size and depth of the tree, the visits reused from the previous move and the visits of the root children, the
+ * time from noticing the opponent's move to the start of the search, and the bytes allocated and the garbage
+ * collections in that window.
+ *
+ * The allocation and garbage collection figures are taken over the whole process, so in a {@link MultiGameClient}
+ * they include the searches of the other games. In the arena mode the tree is discarded after the search and its
+ * size and depth are not recorded.
+ *
+ * A finished record is committed as a {@link SearchEvent} and written to the {@link MetricsLog}, if there is one.
+ */
+public class SearchMetrics {
+    static final String CSV_HEADER = "game,move,field,iterations,search_ms,playouts_per_s,nodes,max_depth,avg_depth,"
+            + "reused_visits,root_visits,first_iteration_ms,allocated_bytes,gc_pause_ms,gc_count";
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> COLLECTORS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private final SearchEvent event = new SearchEvent();
+    private final long noticedNanos;
+    private final long allocatedBefore;
+    private final long gcTimeBefore;
+    private final long gcCountBefore;
+    private long startNanos;
+    private long endNanos;
+
+    private String gameId;
+    private int move;
+    private int field;
+    private int iterations;
+    private int nodes;
+    private int maxDepth;
+    private double averageDepth;
+    private int reusedVisits;
+    // The visits of the root children by action, 0 for actions without a child
+    private final int[] rootVisits = new int[Position.PITS];
+    private long allocated;
+    private long gcPause;
+    private long gcCount;
+
+    private SearchMetrics(long noticedNanos) {
+        this.noticedNanos = noticedNanos;
+        this.allocatedBefore = allocatedBytes();
+        this.gcTimeBefore = gcTime();
+        this.gcCountBefore = gcCount();
+    }
+
+    /**
+     * Starts the window of the metrics.
+     *
+     * @param noticedNanos the time the opponent's move was noticed, as a value of {@link System#nanoTime()}
+     * @return the metrics of the search that follows
+     */
+    public static SearchMetrics begin(long noticedNanos) {
+        return new SearchMetrics(noticedNanos);
+    }
+
+    /**
+     * Marks the start of the search, called by the thread that runs it.
+     */
+    public void searchStarted() {
+        startNanos = System.nanoTime();
+        event.begin();
+    }
+
+    /**
+     * Marks the end of the search and closes the window of the allocation and garbage collection figures.
+     *
+     * @param root the node returned by the search, see {@link MCTS#getBestActionFromFinishedSimulationRootNode(Node)}
+     * @param visitsBefore the visits of the root before the search
+     */
+    public void searchFinished(Node root, int visitsBefore) {
+        event.end();
+        endNanos = System.nanoTime();
+        if (startNanos == 0) {
+            startNanos = noticedNanos;
+        }
+        long allocatedAfter = allocatedBytes();
+        allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        gcPause = gcTime() - gcTimeBefore;
+        gcCount = gcCount() - gcCountBefore;
+        iterations = root.getVisitCount() - visitsBefore;
+        reusedVisits = visitsBefore;
+        // A child shared through the transposition table may have been created by another move
+        List<Node> children = root.getChildNodes();
+        for (int i = 0; i < children.size(); i++) {
+            rootVisits[root.getChildAction(i)] = children.get(i).getVisitCount();
+        }
+    }
+
+    /**
+     * Completes the record after the move has been sent, measures the tree and publishes the record as a
+     * {@link SearchEvent} and to the {@link MetricsLog}. The tree must not be searched meanwhile.
+     *
+     * @param gameId the ID of the game
+     * @param move the number of our own moves in the game, starting at 1
+     * @param field the chosen field, 1 to 12
+     * @param tree the searched tree, or null if the search did not keep one
+     */
+    public void publish(String gameId, int move, int field, SearchTree tree) {
+        this.gameId = gameId;
+        this.move = move;
+        this.field = field;
+        MetricsLog log = MetricsLog.get();
+        if (!event.shouldCommit() && log == null) {
+            return;
+        }
+        if (tree != null) {
+            measureTree(tree.getRoot());
+        }
+        commitEvent();
+        if (log != null) {
+            log.write(this);
+        }
+    }
+
+    /**
+     * Counts the nodes reachable from the root and their depths, each node at the depth of its shortest path.
+     */
+    private void measureTree(Node root) {
+        // A node may have several parents through the transposition table
+        Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        seen.add(root);
+        List<Node> level = List.of(root);
+        long depthSum = 0;
+        int depth = 0;
+        while (!level.isEmpty()) {
+            nodes += level.size();
+            depthSum += (long) depth * level.size();
+            maxDepth = depth;
+            List<Node> next = new ArrayList<>();
+            for (Node node : level) {
+                for (Node child : node.getChildNodes()) {
+                    if (seen.add(child)) {
+                        next.add(child);
+                    }
+                }
+            }
+            level = next;
+            depth++;
+        }
+        averageDepth = (double) depthSum / nodes;
+    }
+
+    private void commitEvent() {
+        event.gameId = gameId;
+        event.move = move;
+        event.field = field;
+        event.iterations = iterations;
+        event.playoutsPerSecond = getPlayoutsPerSecond();
+        event.nodes = nodes;
+        event.maxDepth = maxDepth;
+        event.averageDepth = averageDepth;
+        event.reusedVisits = reusedVisits;
+        event.rootVisits = rootVisitsText();
+        event.firstIteration = startNanos - noticedNanos;
+        event.allocated = allocated;
+        event.gcPause = gcPause;
+        event.gcCount = gcCount;
+        event.commit();
+    }
+
+    /**
+     * Returns the iterations per second of the search, every iteration runs one playout.
+     */
+    public double getPlayoutsPerSecond() {
+        return endNanos > startNanos ? iterations * 1e9 / (endNanos - startNanos) : 0;
+    }
+
+    /**
+     * Returns the record as a line of the CSV format, see {@link #CSV_HEADER}.
+     */
+    String toCsv() {
+        return String.join(",", gameId, String.valueOf(move), String.valueOf(field), String.valueOf(iterations),
+                format(getSearchMillis()), format(getPlayoutsPerSecond()), String.valueOf(nodes),
+                String.valueOf(maxDepth), format(averageDepth), String.valueOf(reusedVisits), rootVisitsText(),
+                format(getFirstIterationMillis()), String.valueOf(allocated), String.valueOf(gcPause),
+                String.valueOf(gcCount));
+    }
+
+    /**
+     * Returns the record as a JSON object on one line, with the keys of {@link #CSV_HEADER}.
+     */
+    String toJson() {
+        StringBuilder visits = new StringBuilder("{");
+        for (int action = 0; action < Position.PITS; action++) {
+            if (rootVisits[action] > 0) {
+                if (visits.length() > 1) {
+                    visits.append(',');
+                }
+                visits.append('"').append(action + 1).append("\":").append(rootVisits[action]);
+            }
+        }
+        visits.append('}');
+        return "{\"game\":\"" + gameId.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+                + ",\"move\":" + move
+                + ",\"field\":" + field
+                + ",\"iterations\":" + iterations
+                + ",\"search_ms\":" + format(getSearchMillis())
+                + ",\"playouts_per_s\":" + format(getPlayoutsPerSecond())
+                + ",\"nodes\":" + nodes
+                + ",\"max_depth\":" + maxDepth
+                + ",\"avg_depth\":" + format(averageDepth)
+                + ",\"reused_visits\":" + reusedVisits
+                + ",\"root_visits\":" + visits
+                + ",\"first_iteration_ms\":" + format(getFirstIterationMillis())
+                + ",\"allocated_bytes\":" + allocated
+                + ",\"gc_pause_ms\":" + gcPause
+                + ",\"gc_count\":" + gcCount
+                + "}";
+    }
+
+    // The visits of the root children as "field:visits", separated by spaces
+    private String rootVisitsText() {
+        StringBuilder text = new StringBuilder();
+        for (int action = 0; action < Position.PITS; action++) {
+            if (rootVisits[action] > 0) {
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                text.append(action + 1).append(':').append(rootVisits[action]);
+            }
+        }
+        return text.toString();
+    }
+
+    private double getSearchMillis() {
+        return (endNanos - startNanos) / 1e6;
+    }
+
+    private double getFirstIterationMillis() {
+        return (startNanos - noticedNanos) / 1e6;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    // The bytes allocated by all live threads, -1 if the JVM does not measure them
+    private static long allocatedBytes() {
+        if (!THREADS.isThreadAllocatedMemorySupported() || !THREADS.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        // Threads that end within the window are not counted, the search threads live as long as the process
+        long total = 0;
+        for (long allocated : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            time += Math.max(0, collector.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : COLLECTORS) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,23 @@
+package bohnenspiel;
+
+/**
+ * The SearchMode enum lists the ways {@link MCTS#search(Node)} can use the search threads.
+ */
+public enum SearchMode {
+    /**
+     * One tree searched by the calling thread.
+     */
+    SEQUENTIAL,
+    /**
+     * One independent tree per thread, the root statistics are merged after the search.
+     */
+    ROOT_PARALLEL,
+    /**
+     * One tree shared by all threads, which use virtual loss to spread over different paths.
+     */
+    TREE_PARALLEL,
+    /**
+     * One tree searched by the calling thread and stored in a {@link NodeArena} instead of {@link Node} objects.
+     */
+    ARENA
+}
@@ -0,0 +1,124 @@
+package bohnenspiel;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SearchScheduler class shares a fixed number of search threads among the games of a {@link MultiGameClient}.
+ * The searches wait in a queue ordered by their deadlines and a free thread always takes the search whose deadline
+ * comes first. Each search runs on one thread, cut to the time left until its deadline, see
+ * {@link TimeManager#forDeadline(State, long)}.
+ */
+public class SearchScheduler {
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>();
+    // Keeps searches with the same deadline in the order they were submitted
+    private final AtomicLong sequence = new AtomicLong();
+    private final Thread[] workers;
+
+    /**
+     * Creates a scheduler and starts its search threads.
+     *
+     * @param threads the number of search threads
+     */
+    public SearchScheduler(int threads) {
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            NodeArena arena = Arguments.SEARCH_MODE == SearchMode.ARENA ? new NodeArena(Arguments.ARENA_CAPACITY) : null;
+            workers[i] = new Thread(() -> work(arena), "search-scheduler-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Submits the search of a tree.
+     *
+     * @param tree the tree to search
+     * @param deadlineNanos the time by which the search must end, as a value of {@link System#nanoTime()}
+     * @return the future root node of the finished search, see {@link MCTS#getBestActionFromFinishedSimulationRootNode(Node)}
+     */
+    public CompletableFuture<Node> submit(SearchTree tree, long deadlineNanos) {
+        return submit(tree, deadlineNanos, null);
+    }
+
+    /**
+     * Submits the search of a tree and marks its start in the given metrics, see {@link SearchMetrics#searchStarted()}.
+     *
+     * @param tree the tree to search
+     * @param deadlineNanos the time by which the search must end, as a value of {@link System#nanoTime()}
+     * @param metrics the metrics of the search, or null
+     * @return the future root node of the finished search, see {@link MCTS#getBestActionFromFinishedSimulationRootNode(Node)}
+     */
+    public CompletableFuture<Node> submit(SearchTree tree, long deadlineNanos, SearchMetrics metrics) {
+        Job job = new Job(tree, deadlineNanos, metrics, sequence.getAndIncrement());
+        queue.add(job);
+        return job.result;
+    }
+
+    /**
+     * Returns the number of searches waiting for a thread.
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Stops the search threads. Searches that have not started yet are cancelled.
+     */
+    public void shutdown() {
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        Job job;
+        while ((job = queue.poll()) != null) {
+            job.result.cancel(false);
+        }
+    }
+
+    private void work(NodeArena arena) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Job job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (job.metrics != null) {
+                    job.metrics.searchStarted();
+                }
+                State state = job.tree.getRoot().getState();
+                TimeManager time = TimeManager.forDeadline(state, job.deadlineNanos);
+                job.result.complete(arena != null ? MCTS.runArenaMCTS(arena, state, time) : MCTS.runMCTS(job.tree, time));
+            } catch (RuntimeException e) {
+                job.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * The Job class is a submitted search, ordered by its deadline.
+     */
+    private static final class Job implements Comparable<Job> {
+        final SearchTree tree;
+        final long deadlineNanos;
+        final SearchMetrics metrics;
+        final long sequence;
+        final CompletableFuture<Node> result = new CompletableFuture<>();
+
+        Job(SearchTree tree, long deadlineNanos, SearchMetrics metrics, long sequence) {
+            this.tree = tree;
+            this.deadlineNanos = deadlineNanos;
+            this.metrics = metrics;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            // nanoTime values may overflow, so they are only compared through their difference
+            int byDeadline = Long.signum(deadlineNanos - other.deadlineNanos);
+            return byDeadline != 0 ? byDeadline : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package bohnenspiel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SearchTree class holds a search tree that is kept between moves: its root node, the optional transposition
+ * table and the number of nodes, which is bounded by a budget.
+ *
+ * When a move is played, {@link #advance(int, State)} promotes the matching child to the root and compacts the tree:
+ * the nodes still reachable are counted and stored in the transposition table again, and their references to
+ * released parents are cleared, so the rest of the tree can be garbage collected. A reused tree larger than the
+ * budget is pruned. {@link #follow(int, State)} only promotes the child and leaves the compaction to the next
+ * {@link #compact()}, so that a move that arrives while the clock runs costs no walk over the tree.
+ */
+public class SearchTree {
+    // Numbers the walks over trees, a node reached by a walk carries its number, see Node#mark(int)
+    private static final AtomicInteger WALKS = new AtomicInteger();
+
+    private Node root;
+    private final TranspositionTable table;
+    private final int maxNodes;
+    // Counted exactly by a compaction and incremented for every new node, released nodes count until the next one
+    private final AtomicInteger nodeCount = new AtomicInteger();
+
+    /**
+     * Creates a search tree for an existing root node.
+     *
+     * @param root the root node, its subtree is kept
+     * @param table the transposition table of the tree, or null
+     * @param maxNodes the maximum number of nodes
+     */
+    public SearchTree(Node root, TranspositionTable table, int maxNodes) {
+        this.table = table;
+        this.maxNodes = maxNodes;
+        this.root = root;
+        compact();
+    }
+
+    /**
+     * Creates a search tree with a new root node for the given state.
+     *
+     * @param state the state of the root
+     * @param table the transposition table of the tree, or null
+     * @param maxNodes the maximum number of nodes
+     */
+    public SearchTree(State state, TranspositionTable table, int maxNodes) {
+        this(new Node(state), table, maxNodes);
+    }
+
+    /**
+     * Expands a node within the node budget, see {@link Node#expand(TranspositionTable)}.
+     *
+     * @param node the node to expand
+     * @return the child node, or null if the budget is used up or the node has no untried actions left
+     */
+    public Node expand(Node node) {
+        if (isFull()) {
+            return null;
+        }
+        Node child = node.expand(table);
+        // A node shared through the transposition table was created by another node and is already counted
+        if (child != null && child.getParent() == node) {
+            nodeCount.incrementAndGet();
+        }
+        return child;
+    }
+
+    /**
+     * Moves the root to the child reached by the played action and compacts the tree. If the child has not been
+     * expanded or does not match the expected state, the tree starts over with a new root for that state.
+     *
+     * @param action the action that was played from the current root
+     * @param state the state after the action as known by the caller
+     * @return the number of visits carried over to the new root, 0 if the tree started over
+     */
+    public int advance(int action, State state) {
+        int visits = follow(action, state);
+        compact();
+        return visits;
+    }
+
+    /**
+     * Moves the root to the child reached by the played action like {@link #advance(int, State)}, but without
+     * compacting the tree. Until the next compaction the released nodes are still counted, and the transposition
+     * table may return them, which is harmless because a node always represents its state.
+     *
+     * @param action the action that was played from the current root
+     * @param state the state after the action as known by the caller
+     * @return the number of visits carried over to the new root, 0 if the tree started over
+     */
+    public int follow(int action, State state) {
+        Node child = root.getChild(action);
+        if (child == null || !child.getState().equals(state)) {
+            reset(state);
+            return 0;
+        }
+        child.detach();
+        root = child;
+        return child.getVisitCount();
+    }
+
+    /**
+     * Discards the whole tree and starts over with a new root for the given state.
+     *
+     * @param state the state of the new root
+     */
+    public void reset(State state) {
+        root = new Node(state);
+        compact();
+    }
+
+    /**
+     * Rebuilds the bookkeeping for the nodes reachable from the root: they are counted and stored in the
+     * transposition table again, which may still refer to released nodes, and a node created by a released node
+     * forgets its parent. If the nodes exceed the budget, the tree is pruned to the shallowest levels that fit into
+     * half of the budget, which leaves room for the next search. The tree must not be searched meanwhile.
+     */
+    public void compact() {
+        // Collect the reachable nodes level by level, a node shared by several parents is taken at its first level
+        int walk = WALKS.incrementAndGet();
+        root.mark(walk);
+        List<List<Node>> levels = new ArrayList<>();
+        List<Node> level = Collections.singletonList(root);
+        int count = 0;
+        while (!level.isEmpty()) {
+            levels.add(level);
+            count += level.size();
+            List<Node> nextLevel = new ArrayList<>();
+            for (Node node : level) {
+                for (Node child : node.getChildNodes()) {
+                    if (child.mark(walk)) {
+                        nextLevel.add(child);
+                    }
+                }
+            }
+            level = nextLevel;
+        }
+
+        int keptLevels = levels.size();
+        if (count > maxNodes) {
+            count = 0;
+            keptLevels = 0;
+            walk = WALKS.incrementAndGet();
+            while (keptLevels < levels.size() && (keptLevels == 0 || count + levels.get(keptLevels).size() <= maxNodes / 2)) {
+                for (Node node : levels.get(keptLevels)) {
+                    node.mark(walk);
+                }
+                count += levels.get(keptLevels++).size();
+            }
+            for (Node node : levels.get(keptLevels - 1)) {
+                node.clearChildren();
+            }
+        }
+
+        if (table != null) {
+            table.clear();
+        }
+        for (int i = 0; i < keptLevels; i++) {
+            for (Node node : levels.get(i)) {
+                // The parent of the root is left to the caller, the constructor may receive a node of another tree
+                Node parent = node.getParent();
+                if (i > 0 && parent != null && !parent.isMarked(walk)) {
+                    node.detach();
+                }
+                if (table != null) {
+                    table.put(node);
+                }
+            }
+        }
+        nodeCount.set(count);
+    }
+
+    /**
+     * Returns true if the node budget is used up, the search then no longer expands nodes.
+     */
+    public boolean isFull() {
+        return nodeCount.get() >= maxNodes;
+    }
+
+    /**
+     * Returns the root node of the tree.
+     */
+    public Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the transposition table of the tree, or null if it has none.
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the number of nodes of the tree.
+     */
+    public int getNodeCount() {
+        return nodeCount.get();
+    }
+
+    /**
+     * Returns the maximum number of nodes of the tree.
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+}
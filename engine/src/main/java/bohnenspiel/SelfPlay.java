@@ -0,0 +1,190 @@
+package bohnenspiel;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The SelfPlay class generates training data for the network in {@code python/}: it plays games of {@link MCTS}
+ * against itself and writes every searched position with the visit shares of the root and the outcome of the game,
+ * see {@link SelfPlayWriter}.
+ *
+ * The games run concurrently on a fixed number of threads, each search on a single thread with a fixed number of
+ * iterations, and the tree is kept between the moves of a game. For the first {@link #SAMPLED_PLIES} plies a move is
+ * drawn in proportion to the visits of the root children, so that the games differ, afterwards the search picks the
+ * move. With a {@link Network} the searches use it, which closes the loop of training and self-play. A thread keeps
+ * the samples of its game in primitive arrays until the outcome is known and then writes them at once.
+ *
+ * Usage: {@code java bohnenspiel.SelfPlay <games> <iterations> [directory] [threads] [seed]}
+ */
+public class SelfPlay {
+    // Games longer than this are scored in their last position, like in a Tournament
+    private static final int MAX_PLIES = 1000;
+    static final int SAMPLED_PLIES = 12;
+    private static final int CHUNK_RECORDS = 1 << 20;
+
+    private final int games;
+    private final int iterations;
+    private final int threads;
+    private final long seed;
+
+    /**
+     * Creates a self-play run.
+     *
+     * @param games the number of games
+     * @param iterations the search iterations per move
+     * @param threads the number of games played at once
+     * @param seed the seed of the random generators, combined with the number of each game
+     */
+    public SelfPlay(int games, int iterations, int threads, long seed) {
+        this.games = games;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Main method of the self-play generator.
+     * @param args the number of games and iterations and optionally the directory, the number of threads and the seed
+     * @throws Exception if a game fails or the data cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: SelfPlay <games> <iterations> [directory] [threads] [seed]");
+            return;
+        }
+        int games = Integer.parseInt(args[0]);
+        int iterations = Integer.parseInt(args[1]);
+        Path directory = Paths.get(args.length > 2 ? args[2] : "selfplay");
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        long start = System.nanoTime();
+        try (SelfPlayWriter writer = new SelfPlayWriter(directory, CHUNK_RECORDS)) {
+            new SelfPlay(games, iterations, threads, seed).run(writer);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d Spiele, %d Stellungen in %.1f s (%.1f Spiele/s, %.0f Stellungen/s) nach %s%n", games,
+                    writer.getSamples(), seconds, games / seconds, writer.getSamples() / seconds, directory);
+        }
+    }
+
+    /**
+     * Plays all games and writes their samples.
+     *
+     * @param writer the writer receiving the samples of each finished game
+     * @throws InterruptedException if the thread is interrupted while waiting for the games
+     * @throws ExecutionException if a game fails
+     */
+    public void run(SelfPlayWriter writer) throws InterruptedException, ExecutionException {
+        ThreadLocal<GameRecord> records = ThreadLocal.withInitial(GameRecord::new);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                futures.add(executor.submit(() -> {
+                    GameRecord record = records.get();
+                    play(record, game);
+                    writer.write(record);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one game and records its samples.
+     *
+     * @param record the record to fill, cleared first
+     * @param number the number of the game, which seeds the random generator
+     */
+    void play(GameRecord record, int number) {
+        FastRandom random = FastRandom.current();
+        random.setSeed(seed + number * 0x9E3779B97F4A7C15L);
+        record.clear();
+        State state = new State();
+        SearchTree tree = new SearchTree(state, null, Arguments.MAX_TREE_NODES);
+        int[] visits = new int[Network.ACTIONS];
+        for (int ply = 0; ply < MAX_PLIES && !state.isTerminal(); ply++) {
+            Node root = MCTS.runMCTS(tree, iterations);
+            boolean redToMove = state.getCurrentPlayer();
+            int first = redToMove ? 0 : 6;
+            Arrays.fill(visits, 0);
+            int total = 0;
+            List<Node> children = root.getChildNodes();
+            for (int i = 0; i < children.size(); i++) {
+                int count = children.get(i).getVisitCount();
+                visits[root.getChildAction(i) - first] = count;
+                total += count;
+            }
+            record.add(state, visits, total);
+
+            int action;
+            if (ply < SAMPLED_PLIES && total > 0) {
+                int pick = random.nextInt(total);
+                int i = 0;
+                while (pick >= visits[i]) {
+                    pick -= visits[i++];
+                }
+                action = first + i;
+            } else {
+                action = MCTS.getBestActionFromFinishedSimulationRootNode(root);
+            }
+            state = state.applyAction(action);
+            tree.advance(action, state);
+        }
+        record.draw = Position.isDraw(state.getLow(), state.getHigh());
+        record.winner = state.getResult();
+    }
+
+    /**
+     * The GameRecord class holds the samples of one game in primitive arrays, in the layout of the records of
+     * {@link SelfPlayWriter}. A record is reused for all games of a thread.
+     */
+    static final class GameRecord {
+        byte[] boards = new byte[256 * Network.CELLS];
+        byte[] scores = new byte[256 * 2];
+        float[] policies = new float[256 * Network.ACTIONS];
+        boolean[] movers = new boolean[256];
+        int size;
+        // True if the red player won the game, only valid if it is not a draw
+        boolean winner;
+        boolean draw;
+
+        void clear() {
+            size = 0;
+        }
+
+        void add(State state, int[] visits, int total) {
+            if (size == movers.length) {
+                boards = Arrays.copyOf(boards, 2 * boards.length);
+                scores = Arrays.copyOf(scores, 2 * scores.length);
+                policies = Arrays.copyOf(policies, 2 * policies.length);
+                movers = Arrays.copyOf(movers, 2 * movers.length);
+            }
+            long low = state.getLow();
+            long high = state.getHigh();
+            boolean redToMove = Position.isRedToMove(high);
+            for (int cell = 0; cell < Network.CELLS; cell++) {
+                boards[size * Network.CELLS + cell] = (byte) Position.pit(low, high, Network.cellPit(redToMove, cell));
+            }
+            scores[2 * size] = (byte) (redToMove ? Position.scoreRed(high) : Position.scoreBlue(high));
+            scores[2 * size + 1] = (byte) (redToMove ? Position.scoreBlue(high) : Position.scoreRed(high));
+            for (int i = 0; i < Network.ACTIONS; i++) {
+                policies[size * Network.ACTIONS + i] = total == 0 ? 0 : (float) visits[i] / total;
+            }
+            movers[size] = redToMove;
+            size++;
+        }
+    }
+}
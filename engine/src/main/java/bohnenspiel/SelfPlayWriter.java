@@ -0,0 +1,148 @@
+package bohnenspiel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The SelfPlayWriter class writes the samples of {@link SelfPlay} games to a directory of chunks. Each chunk is a
+ * NumPy {@code .npy} file of fixed-size records with the structured type {@link #DTYPE}, so that
+ * {@code np.load(file, mmap_mode='r')} maps it without parsing, see {@code python/train.py}. A record holds:
+ * <ul>
+ *     <li>{@code board}: the pits as seen by the player to move, in the cells of the {@link Network} input</li>
+ *     <li>{@code scores}: the score of the player to move and that of the opponent</li>
+ *     <li>{@code policy}: the visit share of each pit of the player to move at the root of the search</li>
+ *     <li>{@code value}: 1 if the player to move won the game, -1 if they lost it and 0 for a draw</li>
+ * </ul>
+ * The header of a chunk reserves room for the number of records, which is filled in when the chunk is closed. A new
+ * chunk starts once a chunk holds the given number of records; the samples of one game are never split.
+ */
+public class SelfPlayWriter implements Closeable {
+    public static final String DTYPE = "[('board', 'u1', (2, 6)), ('scores', 'u1', (2,)), ('policy', '<f4', (6,)), ('value', 'i1')]";
+    public static final int RECORD_BYTES = Network.CELLS + 2 + 4 * Network.ACTIONS + 1;
+    // The .npy header including the magic string, padded with spaces so that the records start aligned
+    private static final int HEADER_BYTES = 256;
+
+    private final Path directory;
+    private final int chunkRecords;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+    private int chunks;
+    private long chunkSamples;
+    private long samples;
+
+    /**
+     * Creates a writer, the first chunk is created with the first game.
+     *
+     * @param directory the directory receiving the chunks, created if missing
+     * @param chunkRecords the number of records after which a new chunk starts
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public SelfPlayWriter(Path directory, int chunkRecords) {
+        this.directory = directory;
+        this.chunkRecords = chunkRecords;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the samples of one game. Several games may write concurrently.
+     *
+     * @param game the samples of the game
+     * @throws UncheckedIOException if the samples cannot be written
+     */
+    public synchronized void write(SelfPlay.GameRecord game) {
+        try {
+            if (channel == null) {
+                openChunk();
+            }
+            for (int i = 0; i < game.size; i++) {
+                if (buffer.remaining() < RECORD_BYTES) {
+                    flush();
+                }
+                buffer.put(game.boards, i * Network.CELLS, Network.CELLS);
+                buffer.put(game.scores, 2 * i, 2);
+                for (int k = 0; k < Network.ACTIONS; k++) {
+                    buffer.putFloat(game.policies[i * Network.ACTIONS + k]);
+                }
+                buffer.put(game.draw ? 0 : game.winner == game.movers[i] ? (byte) 1 : (byte) -1);
+            }
+            chunkSamples += game.size;
+            samples += game.size;
+            if (chunkSamples >= chunkRecords) {
+                closeChunk();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of samples written.
+     */
+    public synchronized long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Closes the current chunk.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            closeChunk();
+        }
+    }
+
+    private void openChunk() throws IOException {
+        Path file = directory.resolve(String.format("selfplay-%05d.npy", chunks++));
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        chunkSamples = 0;
+        buffer.clear();
+        buffer.put(header(0));
+    }
+
+    private void closeChunk() throws IOException {
+        flush();
+        channel.write(ByteBuffer.wrap(header(chunkSamples)), 0);
+        channel.close();
+        channel = null;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Format 1.0 of .npy: the magic string, the version, the length of the dictionary and the dictionary
+    private static byte[] header(long records) {
+        String dictionary = "{'descr': " + DTYPE + ", 'fortran_order': False, 'shape': (" + records + ",), }";
+        StringBuilder text = new StringBuilder(dictionary);
+        while (text.length() < HEADER_BYTES - 11) {
+            text.append(' ');
+        }
+        text.append('\n');
+        byte[] bytes = new byte[HEADER_BYTES];
+        bytes[0] = (byte) 0x93;
+        System.arraycopy("NUMPY".getBytes(StandardCharsets.US_ASCII), 0, bytes, 1, 5);
+        bytes[6] = 1;
+        bytes[7] = 0;
+        bytes[8] = (byte) (HEADER_BYTES - 10);
+        bytes[9] = (byte) ((HEADER_BYTES - 10) >>> 8);
+        System.arraycopy(text.toString().getBytes(StandardCharsets.US_ASCII), 0, bytes, 10, HEADER_BYTES - 10);
+        return bytes;
+    }
+}
@@ -0,0 +1,168 @@
+package bohnenspiel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The State class represents the state of the game at a given point in time.
+ * It is a thin immutable view over the packed encoding of {@link Position}.
+ */
+public class State {
+    private final long low;   // Pits 0 to 7 of the packed position.
+    private final long high;  // Pits 8 to 11, both scores and the side to move of the packed position.
+
+    /**
+     * Initializes the State object with default row and column counts.
+     */
+    public State() {
+        // Each field starts with 6 beans and the red player starts the game
+        this(Position.INITIAL_LOW, Position.INITIAL_HIGH);
+    }
+
+    public State(int[] board, int p1, int p2, boolean redPlayer) {
+        this(Position.packLow(board), Position.packHigh(board, p1, p2, redPlayer));
+    }
+
+    /**
+     * Creates a state from a packed position, see {@link Position}.
+     */
+    public State(long low, long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * Returns a binary array indicating valid moves for the current state.
+     */
+    public List<Integer> getPossibleActions() {
+        List<Integer> validMoves = new ArrayList<>();
+        int mask = getLegalMoveMask();
+        while (mask != 0) {
+            validMoves.add(Integer.numberOfTrailingZeros(mask));
+            mask &= mask - 1;
+        }
+        return validMoves;
+    }
+
+    /**
+     * Returns a bit mask of the valid moves for the current state, bit i is set if action i is valid.
+     */
+    public int getLegalMoveMask() {
+        return Position.legalMoveMask(this.low, this.high);
+    }
+
+    /**
+     * Returns true if the current state is terminal, i.e., no more valid moves are possible.
+     */
+    public boolean isTerminal() {
+        return Position.isTerminal(this.low, this.high);
+    }
+
+    /**
+     * Returns the next state of the game after applying the given action.
+     * @param action The action to apply.
+     * @throws IllegalArgumentException if the action is invalid for the current state.
+     */
+    public State applyAction(int action) throws IllegalArgumentException {
+        boolean redPlayersTurn = getCurrentPlayer();
+        if (action < 0 || action > 11 || (redPlayersTurn && action > 5) || (!redPlayersTurn && action < 6)){
+            throw new IllegalArgumentException("Invalid action: " + action);
+        }
+
+        long[] next = new long[2];
+        Position.applyAction(this.low, this.high, action, next, 0);
+        return new State(next[0], next[1]);
+    }
+
+
+    /**
+     * Return true if the red player (presumably) wins, false if the blue player (presumably) wins.
+     */
+    public boolean getResult() {
+        return Position.isRedWin(this.low, this.high);
+    }
+
+
+    /**
+     * Returns the score of the first player.
+     */
+    public int getP1Score() {
+        return Position.scoreRed(this.high);
+    }
+
+    /**
+     * Returns the score of the second player.
+     */
+    public int getP2Score() {
+        return Position.scoreBlue(this.high);
+    }
+    /**
+     * Returns a copy of the current game board.
+     */
+    public int[] getBoard() {
+        int[] board = new int[Position.PITS];
+        Position.unpack(this.low, this.high, board);
+        return board;
+    }
+
+    /**
+     * Returns the current player.
+     */
+    public boolean getCurrentPlayer() {
+        return Position.isRedToMove(this.high);
+    }
+
+    /**
+     * Returns the low word of the packed position.
+     */
+    public long getLow() {
+        return this.low;
+    }
+
+    /**
+     * Returns the high word of the packed position.
+     */
+    public long getHigh() {
+        return this.high;
+    }
+
+    /**
+     * Returns true if the other object is a state with the same board, scores and player to move.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof State)) {
+            return false;
+        }
+        State state = (State) other;
+        return this.low == state.low && this.high == state.high;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.low * 31 + this.high);
+    }
+
+    /**
+     * Returns the String representation of the current state.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Player 1: ").append(getP1Score()).append("\n");
+        for (int i = 0; i < 6; i++) {
+            sb.append(Position.pit(this.low, this.high, i)).append(" ");
+        }
+        sb.append("\n");
+        for (int i = 6;  i < Position.PITS; i++) {
+            sb.append(Position.pit(this.low, this.high, i)).append(" ");
+        }
+        sb.append("\n");
+        sb.append("Player 2: ").append(getP2Score()).append("\n");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,180 @@
+package bohnenspiel;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The Tablebase class looks up the exact outcome of endgame positions with few beans left on the board. The table is
+ * computed offline by {@link TablebaseGenerator} and memory-mapped, so a lookup is a single read.
+ *
+ * The outcome of a game only depends on the scores through their difference, so the table stores for every board
+ * and side to move the difference of the beans the red player and the blue player still win with perfect play,
+ * including the beans left on the board when the game ends, see {@link Arguments#USE_STARVATION}. A game that
+ * never ends wins nothing for either player. The red player wins if the score difference plus this value is at
+ * least 0, the same rule as {@link Position#isRedWin(long, long)}.
+ *
+ * The boards with n beans are ranked by counting the boards that precede them, so the index of a board is the
+ * number of boards with fewer beans plus its rank among the boards with n beans. There are two entries per board,
+ * the first for the red player to move.
+ */
+public final class Tablebase {
+    // "BSTB" in ASCII, followed by the version, the maximum number of beans and the starvation flag
+    static final int MAGIC = 0x42535442;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    public static final int MAX_BEANS = 20;
+
+    // BINOMIAL[n][k] = n choose k, enough for the boards with MAX_BEANS beans on 12 pits
+    private static final int[][] BINOMIAL = new int[MAX_BEANS + Position.PITS + 1][Position.PITS + 1];
+
+    static {
+        for (int n = 0; n < BINOMIAL.length; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, Position.PITS); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    // Declared after the binomial coefficients, which loading the file needs
+    private static final Tablebase DEFAULT = load(Paths.get(Arguments.TABLEBASE_FILE));
+
+    private final MappedByteBuffer values;
+    private final int maxBeans;
+
+    private Tablebase(MappedByteBuffer values, int maxBeans) {
+        this.values = values;
+        this.maxBeans = maxBeans;
+    }
+
+    /**
+     * Returns the tablebase configured by {@link Arguments#TABLEBASE_FILE}, or null if there is no such file.
+     */
+    public static Tablebase get() {
+        return DEFAULT;
+    }
+
+    /**
+     * Memory-maps a tablebase file.
+     *
+     * @param file the file written by {@link TablebaseGenerator}
+     * @return the tablebase, or null if the file does not exist
+     * @throws IllegalStateException if the file is not a tablebase for the rules of this build
+     */
+    public static Tablebase load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (channel.size() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException("Not a tablebase: " + file);
+            }
+            int maxBeans = buffer.getInt(8);
+            boolean starvation = buffer.getInt(12) != 0;
+            if (maxBeans < 0 || maxBeans > MAX_BEANS || channel.size() != HEADER_BYTES + 2L * boardsUpTo(maxBeans)) {
+                throw new IllegalStateException("Truncated tablebase: " + file);
+            }
+            if (starvation != Arguments.USE_STARVATION) {
+                throw new IllegalStateException("Tablebase " + file + " was generated for other rules");
+            }
+            return new Tablebase(buffer, maxBeans);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if the position has few enough beans on the board to be in the table.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     */
+    public boolean contains(long low, long high) {
+        return Position.TOTAL_BEANS - Position.scoreRed(high) - Position.scoreBlue(high) <= maxBeans;
+    }
+
+    /**
+     * Returns the difference of the beans the red player and the blue player still win with perfect play, see
+     * {@link Tablebase}. The position must be in the table, see {@link #contains(long, long)}.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @return the value of the position for the red player
+     */
+    public int value(long low, long high) {
+        return values.get(HEADER_BYTES + index(low, high));
+    }
+
+    /**
+     * Returns true if the red player wins the position with perfect play, the counterpart of
+     * {@link Position#isRedWin(long, long)}. The position must be in the table, see {@link #contains(long, long)}.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     */
+    public boolean isRedWin(long low, long high) {
+        return Position.scoreRed(high) - Position.scoreBlue(high) + value(low, high) >= 0;
+    }
+
+    /**
+     * Returns true if the position is a draw with perfect play, the counterpart of
+     * {@link Position#isDraw(long, long)}. The position must be in the table, see {@link #contains(long, long)}.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     */
+    public boolean isDraw(long low, long high) {
+        return Position.scoreRed(high) - Position.scoreBlue(high) + value(low, high) == 0;
+    }
+
+    /**
+     * Returns the maximum number of beans on the board of the positions in the table.
+     */
+    public int getMaxBeans() {
+        return maxBeans;
+    }
+
+    /**
+     * Returns the index of the entry of a position, ignoring its scores.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @return the index relative to the first entry
+     */
+    static int index(long low, long high) {
+        int beans = Position.beansRed(low) + Position.beansBlue(low, high);
+        int index = boardsUpTo(beans - 1);
+        int rest = beans;
+        for (int i = 0; i < Position.PITS - 1 && rest > 0; i++) {
+            int pits = Position.PITS - i;
+            int count = Position.pit(low, high, i);
+            // Boards of the remaining pits whose pit i holds fewer beans than this one
+            index += boards(rest, pits) - boards(rest - count, pits);
+            rest -= count;
+        }
+        return 2 * index + (Position.isRedToMove(high) ? 0 : 1);
+    }
+
+    /**
+     * Returns the number of ways to put the given number of beans into the given number of pits.
+     */
+    static int boards(int beans, int pits) {
+        return BINOMIAL[beans + pits - 1][pits - 1];
+    }
+
+    /**
+     * Returns the number of boards with at most the given number of beans, 0 if it is negative.
+     */
+    static int boardsUpTo(int beans) {
+        return beans < 0 ? 0 : BINOMIAL[beans + Position.PITS][Position.PITS];
+    }
+}
@@ -0,0 +1,243 @@
+package bohnenspiel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * The TablebaseGenerator class solves every position with at most a given number of beans on the board by retrograde
+ * analysis and writes the values to a file for {@link Tablebase}.
+ *
+ * The positions are solved layer by layer, from 0 beans upwards. A capture leads to a layer that is already solved,
+ * so within a layer only the moves without capture remain, which may form cycles. Their values are found with
+ * attractors: for every value t from the highest downwards, a red position can reach at least t if one of its moves
+ * does, and a blue position if all of its moves do; symmetrically for the blue player. Positions that neither player
+ * can force away from 0 get the value 0, which includes games that never end.
+ *
+ * Usage: {@code java bohnenspiel.TablebaseGenerator <max beans> [file]}
+ */
+public class TablebaseGenerator {
+    private static final byte NO_EXIT_MAX = Byte.MIN_VALUE;
+    private static final byte NO_EXIT_MIN = Byte.MAX_VALUE;
+    private static final byte UNSOLVED = Byte.MIN_VALUE;
+
+    private final int maxBeans;
+    // The values of all positions, indexed like the file, see Tablebase#index(long, long)
+    private final byte[] values;
+    private final long[] scratch = new long[2];
+    private final int[] board = new int[Position.PITS];
+
+    /**
+     * Creates a generator for the positions with at most the given number of beans on the board.
+     */
+    public TablebaseGenerator(int maxBeans) {
+        if (maxBeans < 0 || maxBeans > Tablebase.MAX_BEANS) {
+            throw new IllegalArgumentException("The number of beans must be between 0 and " + Tablebase.MAX_BEANS);
+        }
+        this.maxBeans = maxBeans;
+        this.values = new byte[2 * Tablebase.boardsUpTo(maxBeans)];
+    }
+
+    /**
+     * Main method of the generator.
+     * @param args the maximum number of beans on the board and optionally the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TablebaseGenerator <max beans> [file]");
+            return;
+        }
+        int maxBeans = Integer.parseInt(args[0]);
+        Path file = Paths.get(args.length > 1 ? args[1] : Arguments.TABLEBASE_FILE);
+
+        TablebaseGenerator generator = new TablebaseGenerator(maxBeans);
+        for (int beans = 0; beans <= maxBeans; beans++) {
+            long start = System.nanoTime();
+            generator.solveLayer(beans);
+            System.out.printf("%d Bohnen: %d Stellungen in %.1f s%n", beans, 2 * Tablebase.boards(beans, Position.PITS),
+                    (System.nanoTime() - start) / 1e9);
+        }
+        generator.write(file);
+        System.out.println("Geschrieben: " + file);
+    }
+
+    /**
+     * Solves all positions with the given number of beans. The layers with fewer beans must be solved already.
+     */
+    void solveLayer(int beans) {
+        int first = 2 * Tablebase.boardsUpTo(beans - 1);
+        int count = 2 * Tablebase.boards(beans, Position.PITS);
+
+        // Terminal positions first, a move without capture may lead to one of them
+        for (int local = 0; local < count; local++) {
+            position(local, beans);
+            values[first + local] = Position.isTerminal(scratch[0], scratch[1]) ? terminalValue(scratch[0], scratch[1]) : UNSOLVED;
+        }
+
+        // The best value each side reaches by leaving the cycles of the layer, and the moves that stay inside
+        byte[] exitMax = new byte[count];
+        byte[] exitMin = new byte[count];
+        int[] internalMoves = new int[count];
+        int[] predecessorStart = new int[count + 1];
+        Arrays.fill(exitMax, NO_EXIT_MAX);
+        Arrays.fill(exitMin, NO_EXIT_MIN);
+        for (int local = 0; local < count; local++) {
+            if (values[first + local] != UNSOLVED) {
+                continue;
+            }
+            position(local, beans);
+            long low = scratch[0];
+            long high = scratch[1];
+            for (int moves = Position.legalMoveMask(low, high); moves != 0; moves &= moves - 1) {
+                Position.applyAction(low, high, Integer.numberOfTrailingZeros(moves), scratch, 0);
+                int child = Tablebase.index(scratch[0], scratch[1]);
+                if (values[child] == UNSOLVED) {
+                    internalMoves[local]++;
+                    predecessorStart[child - first + 1]++;
+                } else {
+                    int value = values[child] + Position.scoreRed(scratch[1]) - Position.scoreBlue(scratch[1]);
+                    exitMax[local] = (byte) Math.max(exitMax[local], value);
+                    exitMin[local] = (byte) Math.min(exitMin[local], value);
+                }
+            }
+        }
+        for (int local = 0; local < count; local++) {
+            predecessorStart[local + 1] += predecessorStart[local];
+        }
+        int[] predecessors = new int[predecessorStart[count]];
+        int[] filled = Arrays.copyOf(predecessorStart, count);
+        for (int local = 0; local < count; local++) {
+            if (values[first + local] != UNSOLVED) {
+                continue;
+            }
+            position(local, beans);
+            long low = scratch[0];
+            long high = scratch[1];
+            for (int moves = Position.legalMoveMask(low, high); moves != 0; moves &= moves - 1) {
+                Position.applyAction(low, high, Integer.numberOfTrailingZeros(moves), scratch, 0);
+                int child = Tablebase.index(scratch[0], scratch[1]);
+                if (values[child] == UNSOLVED) {
+                    predecessors[filled[child - first]++] = local;
+                }
+            }
+        }
+
+        byte[] result = new byte[count];
+        attract(true, beans, first, exitMax, exitMin, internalMoves, predecessorStart, predecessors, result);
+        attract(false, beans, first, exitMax, exitMin, internalMoves, predecessorStart, predecessors, result);
+        for (int local = 0; local < count; local++) {
+            if (values[first + local] == UNSOLVED) {
+                values[first + local] = result[local];
+            }
+        }
+    }
+
+    /**
+     * Writes the position with the given index within its layer to {@code scratch}, with both scores 0.
+     */
+    private void position(int local, int beans) {
+        unrank(local >> 1, beans, board);
+        scratch[0] = Position.packLow(board);
+        scratch[1] = Position.packHigh(board, 0, 0, (local & 1) == 0);
+    }
+
+    /**
+     * Finds the unsolved positions of a layer from which one player can force a value of at least 1 (red) or at most
+     * -1 (blue) and stores the best such value in {@code result}, see {@link TablebaseGenerator}.
+     */
+    private void attract(boolean red, int beans, int first, byte[] exitMax, byte[] exitMin, int[] internalMoves,
+                         int[] predecessorStart, int[] predecessors, byte[] result) {
+        int count = result.length;
+        int[] remaining = internalMoves.clone();
+        boolean[] reached = new boolean[count];
+        int[] queue = new int[count];
+
+        for (int threshold = beans; threshold >= 1; threshold--) {
+            int head = 0;
+            int tail = 0;
+            // Positions that leave the layer with exactly this value, from the view of the attracting player. Without
+            // an exit, the sentinels are below every threshold for the attracting player and above for the other one.
+            for (int local = 0; local < count; local++) {
+                if (reached[local] || values[first + local] != UNSOLVED) {
+                    continue;
+                }
+                boolean attractorToMove = ((local & 1) == 0) == red;
+                if (attractorToMove ? (red ? exitMax[local] : -exitMin[local]) == threshold
+                        : remaining[local] == 0 && (red ? exitMin[local] : -exitMax[local]) == threshold) {
+                    reached[local] = true;
+                    queue[tail++] = local;
+                }
+            }
+            while (head < tail) {
+                int local = queue[head++];
+                result[local] = (byte) (red ? threshold : -threshold);
+                for (int i = predecessorStart[local]; i < predecessorStart[local + 1]; i++) {
+                    int predecessor = predecessors[i];
+                    if (reached[predecessor]) {
+                        continue;
+                    }
+                    boolean attractorToMove = ((predecessor & 1) == 0) == red;
+                    if (attractorToMove || (--remaining[predecessor] == 0
+                            && (red ? exitMin[predecessor] : -exitMax[predecessor]) >= threshold)) {
+                        reached[predecessor] = true;
+                        queue[tail++] = predecessor;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the value of a terminal position: the beans left on the board go to the player who has them if
+     * {@link Arguments#USE_STARVATION} is set, otherwise to nobody.
+     */
+    private static byte terminalValue(long low, long high) {
+        if (!Arguments.USE_STARVATION) {
+            return 0;
+        }
+        return (byte) (Position.beansRed(low) - Position.beansBlue(low, high));
+    }
+
+    /**
+     * Writes the board with the given rank among the boards with the given number of beans, the inverse of the
+     * ranking in {@link Tablebase#index(long, long)}.
+     */
+    static void unrank(int rank, int beans, int[] board) {
+        int rest = beans;
+        for (int i = 0; i < Position.PITS - 1; i++) {
+            int pits = Position.PITS - i;
+            int count = 0;
+            // Skip the boards whose pit i holds fewer beans
+            while (rank >= Tablebase.boards(rest - count, pits - 1)) {
+                rank -= Tablebase.boards(rest - count, pits - 1);
+                count++;
+            }
+            board[i] = count;
+            rest -= count;
+        }
+        board[Position.PITS - 1] = rest;
+    }
+
+    /**
+     * Writes the solved values with the header read by {@link Tablebase#load(Path)}.
+     *
+     * @param file the file to write
+     * @throws IOException if the file cannot be written
+     */
+    void write(Path file) throws IOException {
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(maxBeans);
+            out.writeInt(Arguments.USE_STARVATION ? 1 : 0);
+            out.write(values);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package bohnenspiel;
+
+import java.util.List;
+
+/**
+ * The TimeManager class decides how long the search for a move runs.
+ *
+ * The soft budget depends on the game phase, measured by the beans left on the board, and is capped by the
+ * server's per-move limit minus a safety margin, which is the hard budget. The search stops before the soft budget
+ * when the most visited root child can no longer be overtaken, and continues up to the hard budget while the two most
+ * visited children are close. A time manager is immutable after its creation, so the threads of a parallel search
+ * can share one. The loops call {@link #shouldStop(Node, int)} only every {@link #CHECK_INTERVAL} iterations,
+ * which keeps the cost of reading the clock negligible.
+ */
+public class TimeManager {
+    public static final int CHECK_INTERVAL = 64; // iterations between two checks, a power of two
+    private static final int MIN_ITERATIONS = 256; // iterations before the search may stop early
+    private static final double OPENING_FACTOR = 0.8; // share of the time budget in the opening
+    private static final double ENDGAME_FACTOR = 0.6; // share of the time budget in the endgame
+    private static final int OPENING_BEANS = 56; // more beans on the board than this count as the opening
+    private static final int ENDGAME_BEANS = 20; // fewer beans on the board than this count as the endgame
+    private static final double CLOSE_RATIO = 0.1; // the two best children are close if they differ by less than this share
+
+    private final long startNanos;
+    private final long softNanos;
+    private final long hardNanos;
+
+    /**
+     * Creates a time manager that starts counting now.
+     *
+     * @param softMillis the time after which the search stops unless the two best children are close
+     * @param hardMillis the time after which the search always stops
+     */
+    public TimeManager(double softMillis, double hardMillis) {
+        this.startNanos = System.nanoTime();
+        this.softNanos = (long) (Math.min(softMillis, hardMillis) * 1_000_000);
+        this.hardNanos = (long) (hardMillis * 1_000_000);
+    }
+
+    /**
+     * Creates a time manager that always searches for the given time.
+     *
+     * @param millis the time budget in milliseconds
+     * @return the time manager
+     */
+    public static TimeManager fixed(double millis) {
+        return new TimeManager(millis, millis);
+    }
+
+    /**
+     * Creates a time manager that stops after the given number of iterations instead of a time. Like every time
+     * manager it is only asked every {@link #CHECK_INTERVAL} iterations, so the search may run up to that many more.
+     *
+     * @param iterations the number of iterations
+     * @return the time manager
+     */
+    public static TimeManager forIterations(long iterations) {
+        return new TimeManager(Double.MAX_VALUE, Double.MAX_VALUE) {
+            @Override
+            public boolean shouldStop(int bestVisits, int secondVisits, int searched, boolean forced) {
+                return searched >= iterations;
+            }
+        };
+    }
+
+    /**
+     * Creates a time manager for a move in the given state, see {@link TimeManager}.
+     *
+     * @param state the state to search a move for
+     * @return the time manager
+     */
+    public static TimeManager forMove(State state) {
+        double hardMillis = Arguments.MOVE_TIME_LIMIT - Arguments.TIME_SAFETY_MARGIN;
+        double softMillis = Arguments.MAX_SIMULATION_TIME;
+        int beans = Position.beansRed(state.getLow()) + Position.beansBlue(state.getLow(), state.getHigh());
+        if (beans > OPENING_BEANS) {
+            softMillis *= OPENING_FACTOR;
+        } else if (beans < ENDGAME_BEANS) {
+            softMillis *= ENDGAME_FACTOR;
+        }
+        return new TimeManager(softMillis, hardMillis);
+    }
+
+    /**
+     * Creates a time manager for a move in the given state that must end by the given deadline, e.g., because the
+     * opponent's move was noticed late or the search waited for a free thread. The budgets of
+     * {@link #forMove(State)} are cut to the time left until the deadline.
+     *
+     * @param state the state to search a move for
+     * @param deadlineNanos the deadline as a value of {@link System#nanoTime()}
+     * @return the time manager
+     */
+    public static TimeManager forDeadline(State state, long deadlineNanos) {
+        TimeManager budget = forMove(state);
+        double remainingMillis = Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000.0);
+        return new TimeManager(Math.min(budget.softNanos / 1_000_000.0, remainingMillis),
+                Math.min(budget.hardNanos / 1_000_000.0, remainingMillis));
+    }
+
+    /**
+     * Returns true if the search of the given root should stop, see {@link #shouldStop(int, int, int, boolean)}, or
+     * if the root is proven and fully expanded, see {@link Node#isProven()}.
+     *
+     * @param root the root node of the search
+     * @param iterations the number of iterations since the search started
+     * @return true if the search should stop
+     */
+    public boolean shouldStop(Node root, int iterations) {
+        // The choice among the proven children of a proven root cannot change
+        if (root.isProven() && root.isFullyExpanded()) {
+            return true;
+        }
+        int best = 0;
+        int second = 0;
+        List<Node> children = root.getChildNodes();
+        for (int i = 0; i < children.size(); i++) {
+            int visits = children.get(i).getVisitCount();
+            if (visits > best) {
+                second = best;
+                best = visits;
+            } else if (visits > second) {
+                second = visits;
+            }
+        }
+        return shouldStop(best, second, iterations, Integer.bitCount(root.getState().getLegalMoveMask()) <= 1);
+    }
+
+    /**
+     * Returns true if the search should stop: after the hard budget, after the soft budget unless the two best root
+     * children are close, or before the soft budget if the best child can no longer be overtaken at the current rate.
+     *
+     * @param bestVisits the visits of the most visited root child
+     * @param secondVisits the visits of the second most visited root child
+     * @param iterations the number of iterations since the search started
+     * @param forced true if the root has at most one legal action
+     * @return true if the search should stop
+     */
+    public boolean shouldStop(int bestVisits, int secondVisits, int iterations, boolean forced) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (elapsed >= hardNanos) {
+            return true;
+        }
+        int lead = bestVisits - secondVisits;
+        if (elapsed >= softNanos) {
+            return lead >= CLOSE_RATIO * bestVisits;
+        }
+        if (iterations < MIN_ITERATIONS || elapsed <= 0) {
+            return false;
+        }
+        double remainingIterations = (double) iterations * (softNanos - elapsed) / elapsed;
+        return forced || lead > remainingIterations;
+    }
+
+    /**
+     * Returns the milliseconds since the time manager was created.
+     */
+    public double getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,320 @@
+package bohnenspiel;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The Tournament class plays many games between two players without a game server and reports the wins, draws and
+ * losses of the first player, its score with a 95% confidence interval, where a draw counts half, the search
+ * iterations per move, the move latencies and the games per second.
+ *
+ * The games run concurrently on a fixed number of threads, each thread with its own instances of both players. The
+ * players swap colours after every game, and the random generator of the thread is seeded from the seed of the
+ * tournament and the number of the game, so players with a fixed number of iterations or a fixed depth play the same
+ * games in every run. An MCTS player may search on several threads of its own, root- or tree-parallel, see
+ * {@link MctsPlayer}; such games are not reproducible. The other search settings in {@link Arguments} apply to all
+ * MCTS players alike; to compare them, run the tournament once per setting against the same opponent.
+ *
+ * Usage: {@code java bohnenspiel.Tournament <player> <player> [games] [threads] [seed]}, where a player is
+ * {@code random}, {@code reference}, {@code alphabeta:<depth>}, {@code alphabeta:<millis>ms},
+ * {@code mcts:<iterations>}, {@code mcts:<millis>ms}, {@code arena:<iterations>} or {@code arena:<millis>ms}. An
+ * {@code mcts} player takes the number of its search threads and the mode {@code root} or {@code tree} as further
+ * parts, e.g., {@code mcts:200ms:4:tree}; the mode defaults to {@link Arguments#SEARCH_MODE}, root-parallel for the
+ * arena mode.
+ */
+public class Tournament {
+    // Games longer than this are scored in their last position, like a playout at its maximum depth
+    private static final int MAX_PLIES = 1000;
+    private static final double Z_95 = 1.959964;
+
+    private final String first;
+    private final String second;
+    private final int games;
+    private final int threads;
+    private final long seed;
+
+    /**
+     * Creates a tournament between two players given by their specifications, see {@link Tournament}.
+     */
+    public Tournament(String first, String second, int games, int threads, long seed) {
+        // Fail early on invalid specifications
+        createPlayer(first);
+        createPlayer(second);
+        this.first = first;
+        this.second = second;
+        this.games = games;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Main method of the tournament.
+     * @param args the specifications of both players and optionally the number of games, threads and the seed
+     * @throws Exception if a game fails
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.out.println("Usage: Tournament <player> <player> [games] [threads] [seed]");
+            return;
+        }
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        new Tournament(args[0], args[1], games, threads, seed).run().print(System.out);
+    }
+
+    /**
+     * Creates a player from its specification, see {@link Tournament}.
+     *
+     * @param spec the specification
+     * @return the player, drawing random numbers from the generator of the current thread
+     * @throws IllegalArgumentException if the specification is invalid
+     */
+    public static Player createPlayer(String spec) {
+        String[] parts = spec.split(":", 4);
+        String argument = parts.length > 1 ? parts[1] : "";
+        boolean timed = argument.endsWith("ms");
+        double value = argument.isEmpty() ? 0 : Double.parseDouble(timed ? argument.substring(0, argument.length() - 2) : argument);
+        switch (parts[0]) {
+            case "random":
+                return new RandomPlayer(FastRandom.current());
+            case "reference":
+                return AlphaBetaPlayer.reference();
+            case "alphabeta":
+                if (value > 0) {
+                    return timed ? AlphaBetaPlayer.withTime(value) : AlphaBetaPlayer.withDepth((int) value);
+                }
+                break;
+            case "mcts":
+                if (value > 0) {
+                    int searchThreads = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+                    SearchMode mode = parts.length > 3 ? parseMode(parts[3])
+                            : Arguments.SEARCH_MODE == SearchMode.ARENA ? SearchMode.ROOT_PARALLEL : Arguments.SEARCH_MODE;
+                    if (searchThreads > 0 && mode != null) {
+                        return new MctsPlayer(timed ? 0 : (int) value, timed ? value : 0, searchThreads, mode);
+                    }
+                }
+                break;
+            case "arena":
+                if (value > 0 && parts.length <= 2) {
+                    return new MctsPlayer(timed ? 0 : (int) value, timed ? value : 0, true);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Invalid player: " + spec);
+    }
+
+    // The parallel mode of an MCTS player, null if it is unknown
+    private static SearchMode parseMode(String mode) {
+        switch (mode) {
+            case "root":
+                return SearchMode.ROOT_PARALLEL;
+            case "tree":
+                return SearchMode.TREE_PARALLEL;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Plays all games and returns the report.
+     *
+     * @return the report
+     * @throws InterruptedException if the thread is interrupted while waiting for the games
+     * @throws ExecutionException if a game fails
+     */
+    public Report run() throws InterruptedException, ExecutionException {
+        ThreadLocal<Player[]> players = ThreadLocal.withInitial(() -> new Player[]{createPlayer(first), createPlayer(second)});
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<Game>> futures = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                futures.add(executor.submit(() -> play(players.get(), game)));
+            }
+            Report report = new Report(first, second);
+            for (Future<Game> future : futures) {
+                report.add(future.get());
+            }
+            report.seconds = (System.nanoTime() - start) / 1e9;
+            return report;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Game play(Player[] players, int number) {
+        FastRandom.current().setSeed(seed + number * 0x9E3779B97F4A7C15L);
+        boolean firstIsRed = number % 2 == 0;
+        Game game = new Game(firstIsRed);
+        for (Player player : players) {
+            player.newGame();
+        }
+
+        State state = new State();
+        for (int ply = 0; ply < MAX_PLIES && !state.isTerminal(); ply++) {
+            int mover = state.getCurrentPlayer() == firstIsRed ? 0 : 1;
+            long moveStart = System.nanoTime();
+            int action = players[mover].chooseAction(state);
+            game.addMove(mover, System.nanoTime() - moveStart, players[mover].getLastIterations());
+            state = state.applyAction(action);
+        }
+        // State.getResult() counts a draw as a win of the red player
+        game.draw = Position.isDraw(state.getLow(), state.getHigh());
+        game.firstWins = !game.draw && state.getResult() == firstIsRed;
+        return game;
+    }
+
+    /**
+     * The Game class holds the outcome and the move statistics of one game.
+     */
+    static final class Game {
+        final boolean firstIsRed;
+        boolean firstWins;
+        boolean draw;
+        final long[][] latencies = {new long[32], new long[32]};
+        final int[] moves = new int[2];
+        final long[] iterations = new long[2];
+
+        Game(boolean firstIsRed) {
+            this.firstIsRed = firstIsRed;
+        }
+
+        void addMove(int player, long nanos, long moveIterations) {
+            if (moves[player] == latencies[player].length) {
+                latencies[player] = Arrays.copyOf(latencies[player], 2 * moves[player]);
+            }
+            latencies[player][moves[player]++] = nanos;
+            iterations[player] += moveIterations;
+        }
+    }
+
+    /**
+     * The Report class summarizes the games of a tournament.
+     */
+    public static final class Report {
+        private final String[] names;
+        private int games;
+        private int firstWins;
+        private int firstWinsAsRed;
+        private int draws;
+        private int drawsAsRed;
+        private int gamesAsRed;
+        private final long[][] latencies = {new long[1024], new long[1024]};
+        private final int[] moves = new int[2];
+        private final long[] iterations = new long[2];
+        private double seconds;
+
+        Report(String first, String second) {
+            this.names = new String[]{first, second};
+        }
+
+        void add(Game game) {
+            games++;
+            if (game.firstIsRed) {
+                gamesAsRed++;
+            }
+            if (game.firstWins) {
+                firstWins++;
+                if (game.firstIsRed) {
+                    firstWinsAsRed++;
+                }
+            } else if (game.draw) {
+                draws++;
+                if (game.firstIsRed) {
+                    drawsAsRed++;
+                }
+            }
+            for (int player = 0; player < 2; player++) {
+                if (moves[player] + game.moves[player] > latencies[player].length) {
+                    latencies[player] = Arrays.copyOf(latencies[player], 2 * (moves[player] + game.moves[player]));
+                }
+                System.arraycopy(game.latencies[player], 0, latencies[player], moves[player], game.moves[player]);
+                moves[player] += game.moves[player];
+                iterations[player] += game.iterations[player];
+            }
+        }
+
+        /**
+         * Returns the score of the first player per game, a win counts 1 and a draw 1/2.
+         */
+        public double getWinRate() {
+            return games == 0 ? 0 : (firstWins + 0.5 * draws) / games;
+        }
+
+        /**
+         * Returns the number of drawn games.
+         */
+        public int getDraws() {
+            return draws;
+        }
+
+        /**
+         * Returns the lower and upper bound of the 95% Wilson score interval of the score of the first player, see
+         * {@link #getWinRate()}.
+         */
+        public double[] getConfidenceInterval() {
+            if (games == 0) {
+                return new double[]{0, 1};
+            }
+            double p = getWinRate();
+            double z2 = Z_95 * Z_95;
+            double center = (p + z2 / (2 * games)) / (1 + z2 / games);
+            double margin = Z_95 * Math.sqrt(p * (1 - p) / games + z2 / (4.0 * games * games)) / (1 + z2 / games);
+            return new double[]{center - margin, center + margin};
+        }
+
+        /**
+         * Returns the games played per second.
+         */
+        public double getGamesPerSecond() {
+            return games / seconds;
+        }
+
+        /**
+         * Returns the latency of a player's moves at the given percentile in milliseconds, by the nearest rank.
+         *
+         * @param player 0 for the first player, 1 for the second
+         * @param percentile the percentile between 0 and 100
+         */
+        public double getLatencyMillis(int player, double percentile) {
+            if (moves[player] == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(latencies[player], moves[player]);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(0, rank - 1)] / 1e6;
+        }
+
+        /**
+         * Prints the report.
+         */
+        public void print(PrintStream out) {
+            double[] interval = getConfidenceInterval();
+            out.printf("%s gegen %s: %d Spiele in %.1f s (%.1f Spiele/s)%n", names[0], names[1], games, seconds, getGamesPerSecond());
+            int winsAsBlue = firstWins - firstWinsAsRed;
+            int drawsAsBlue = draws - drawsAsRed;
+            out.printf("Punkte %s: %.1f%% [%.1f%%, %.1f%%] (95%%-KI), S/U/N %d/%d/%d, als Rot %d/%d/%d, als Blau %d/%d/%d%n",
+                    names[0], 100 * getWinRate(), 100 * interval[0], 100 * interval[1],
+                    firstWins, draws, games - firstWins - draws,
+                    firstWinsAsRed, drawsAsRed, gamesAsRed - firstWinsAsRed - drawsAsRed,
+                    winsAsBlue, drawsAsBlue, games - gamesAsRed - winsAsBlue - drawsAsBlue);
+            for (int player = 0; player < 2; player++) {
+                out.printf("%s: %d Züge, %.0f Iterationen/Zug, Latenz p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                        names[player], moves[player], moves[player] == 0 ? 0.0 : (double) iterations[player] / moves[player],
+                        getLatencyMillis(player, 50), getLatencyMillis(player, 90), getLatencyMillis(player, 99),
+                        getLatencyMillis(player, 100));
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package bohnenspiel;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The TranspositionTable class maps positions to the {@link Node} that represents them in the search, so that
+ * identical positions reached by different move orders share one node and its statistics.
+ *
+ * The table has a fixed number of slots grouped into buckets of four. When a bucket is full, the
+ * {@link ReplacementPolicy} decides which entry is overwritten. Entries are verified against the full position, so a
+ * hash collision is reported as a miss. Slots are written without locking: a racing write may lose an entry, but a
+ * lookup never returns a node for a different position, so the table can be shared by several search threads.
+ */
+public class TranspositionTable {
+    private static final int BUCKET_SIZE = 4;
+
+    /**
+     * The ReplacementPolicy enum decides which entry of a full bucket is overwritten.
+     */
+    public enum ReplacementPolicy {
+        /**
+         * The entry in the slot the hash points to is overwritten, i.e., newer positions always win.
+         */
+        ALWAYS,
+        /**
+         * The entry with the fewest visits is overwritten, so that well searched positions stay in the table.
+         */
+        LEAST_VISITED
+    }
+
+    private final Node[] slots;
+    private final int bucketMask;
+    private final ReplacementPolicy policy;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a transposition table.
+     *
+     * @param capacity the number of entries, rounded up to a power of two of at least the bucket size
+     * @param policy the policy for replacing entries of full buckets
+     */
+    public TranspositionTable(int capacity, ReplacementPolicy policy) {
+        int size = Integer.highestOneBit(Math.max(BUCKET_SIZE, capacity - 1) << 1);
+        this.slots = new Node[size];
+        this.bucketMask = size / BUCKET_SIZE - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Returns the node stored for the given state.
+     *
+     * @param state the state to look up
+     * @return the node, or null if the table does not contain the state
+     */
+    public Node get(State state) {
+        int bucket = bucket(state);
+        for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            Node node = slots[i];
+            if (node != null && node.getState().equals(state)) {
+                hits.increment();
+                return node;
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Stores a node for its state, replacing an older entry of the same bucket if necessary.
+     *
+     * @param node the node to store
+     */
+    public void put(Node node) {
+        long hash = Zobrist.hash(node.getState());
+        int bucket = bucket(hash);
+        // The bits above the bucket index choose the slot inside the bucket
+        int victim = bucket + ((int) (hash >>> 32) & (BUCKET_SIZE - 1));
+        int victimVisits = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            Node entry = slots[i];
+            if (entry == null || entry.getState().equals(node.getState())) {
+                slots[i] = node;
+                return;
+            }
+            if (policy == ReplacementPolicy.LEAST_VISITED && entry.getVisitCount() < victimVisits) {
+                victim = i;
+                victimVisits = entry.getVisitCount();
+            }
+        }
+        slots[victim] = node;
+    }
+
+    /**
+     * Removes all entries and resets the counters.
+     */
+    public void clear() {
+        Arrays.fill(slots, null);
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * Returns the number of lookups that found a node.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that did not find a node.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    private int bucket(State state) {
+        return bucket(Zobrist.hash(state));
+    }
+
+    private int bucket(long hash) {
+        return ((int) hash & bucketMask) * BUCKET_SIZE;
+    }
+}
@@ -0,0 +1,68 @@
+package bohnenspiel;
+
+/**
+ * The UctTables class holds precomputed terms of the exploration part of the UCB value,
+ * {@code C * sqrt(log(parentVisits) / visits)}, which is split into {@code C * sqrt(log(parentVisits))} and
+ * {@code 1 / sqrt(visits)}. Selection then needs two array reads and a multiplication per child instead of a
+ * logarithm, a division and a square root. Visit counts beyond the tables are computed directly.
+ */
+public final class UctTables {
+    static final int SIZE = 1 << 16;
+
+    // C * sqrt(log(n)), 0 for n = 0
+    private static final double[] EXPLORATION = new double[SIZE];
+    // 1 / sqrt(n), infinite for n = 0
+    private static final double[] INVERSE_SQRT = new double[SIZE];
+
+    static {
+        INVERSE_SQRT[0] = Double.POSITIVE_INFINITY;
+        for (int n = 1; n < SIZE; n++) {
+            EXPLORATION[n] = Arguments.C * Math.sqrt(Math.log(n));
+            INVERSE_SQRT[n] = 1 / Math.sqrt(n);
+        }
+    }
+
+    private UctTables() {
+    }
+
+    /**
+     * Returns {@code C * sqrt(log(parentVisits))}, the factor of the exploration term shared by all children.
+     *
+     * @param parentVisits the visits of the parent, not negative
+     */
+    public static double exploration(int parentVisits) {
+        return parentVisits < SIZE ? EXPLORATION[parentVisits] : Arguments.C * Math.sqrt(Math.log(parentVisits));
+    }
+
+    /**
+     * Returns {@code 1 / sqrt(visits)}, the factor of the exploration term of a child.
+     *
+     * @param visits the visits of the child, not negative
+     */
+    public static double inverseSqrt(int visits) {
+        return visits < SIZE ? INVERSE_SQRT[visits] : 1 / Math.sqrt(visits);
+    }
+
+    /**
+     * Returns the UCB value of a child.
+     *
+     * @param wins the wins of the child for the player who selects it
+     * @param visits the visits of the child, greater than 0
+     * @param exploration the result of {@link #exploration(int)} for the parent
+     */
+    public static double ucb(int wins, int visits, double exploration) {
+        return (double) wins / visits + exploration * inverseSqrt(visits);
+    }
+
+    /**
+     * Returns the PUCT value of a child, {@code wins / visits + C_PUCT * prior * sqrt(parentVisits) / (1 + visits)}.
+     *
+     * @param wins the wins of the child for the player who selects it
+     * @param visits the visits of the child, greater than 0
+     * @param prior the probability of the move to the child given by the network
+     * @param sqrtParentVisits the square root of the visits of the parent
+     */
+    public static double puct(int wins, int visits, float prior, double sqrtParentVisits) {
+        return (double) wins / visits + Arguments.C_PUCT * prior * sqrtParentVisits / (1 + visits);
+    }
+}
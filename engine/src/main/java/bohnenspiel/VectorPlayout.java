@@ -0,0 +1,307 @@
+package bohnenspiel;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The VectorPlayout class runs a batch of light playouts at once with the Vector API, one independent random game per
+ * lane, e.g., 16 games with AVX-512 or 8 with AVX2. The board is stored by pit, so that pit p of all games is one
+ * vector, and sowing, the capture chain and the end of the games are computed for all lanes together. The rules are
+ * those of {@link Position#applyAction(long, long, int, long[], int)}, the end of a playout those of
+ * {@link Playout#run(long, long, int)}; only the random moves differ, as every lane draws from its own generator.
+ *
+ * The class needs the incubator module at runtime: {@code java --add-modules jdk.incubator.vector ...}. It is only
+ * loaded if {@link Arguments#VECTOR_PLAYOUTS} is set. Instances are not thread-safe, every search thread uses its own,
+ * see {@link #current()}.
+ *
+ * Usage: {@code java --add-modules jdk.incubator.vector bohnenspiel.VectorPlayout [positions]} compares the kernel
+ * with the scalar rules on random positions and measures both.
+ */
+public final class VectorPlayout {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    public static final int LANES = SPECIES.length();
+
+    private static final ThreadLocal<VectorPlayout> CURRENT = ThreadLocal.withInitial(() -> new VectorPlayout(FastRandom.current()));
+    private static final int PITS = Position.PITS;
+
+    private final Tablebase tablebase = Tablebase.get();
+    // Pit p of lane i at p * LANES + i
+    private final int[] pits = new int[PITS * LANES];
+    private final int[] scoreRed = new int[LANES];
+    private final int[] scoreBlue = new int[LANES];
+    // 1 if it is the red player's turn
+    private final int[] redToMove = new int[LANES];
+    // The xorshift generator of each lane, never 0
+    private final int[] seeds = new int[LANES];
+    // The result of each lane ended by the tablebase, 1 if red wins
+    private final int[] tablebaseResults = new int[LANES];
+    private final int[] board = new int[PITS];
+
+    /**
+     * Creates a playout engine whose lanes are seeded from the given generator.
+     */
+    public VectorPlayout(FastRandom random) {
+        for (int lane = 0; lane < LANES; lane++) {
+            seeds[lane] = random.nextInt(Integer.MAX_VALUE) + 1;
+        }
+    }
+
+    /**
+     * Returns the playout engine of the current thread.
+     */
+    public static VectorPlayout current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Plays {@link #LANES} random games from the given packed position until they end or the maximum depth is
+     * reached, see {@link Playout#run(long, long, int)}.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @param maxDepth the maximum number of moves to play
+     * @return the number of games the red player (presumably) wins
+     */
+    public int run(long low, long high, int maxDepth) {
+        for (int lane = 0; lane < LANES; lane++) {
+            set(lane, low, high);
+        }
+        VectorMask<Integer> active = SPECIES.maskAll(true);
+        VectorMask<Integer> solved = SPECIES.maskAll(false);
+        for (int depth = 0; depth < maxDepth && active.anyTrue(); depth++) {
+            if (tablebase != null) {
+                VectorMask<Integer> probed = probeTablebase(active);
+                solved = solved.or(probed);
+                active = active.andNot(probed);
+            }
+            active = step(active, null);
+        }
+
+        int redWins = 0;
+        for (int lane = 0; lane < LANES; lane++) {
+            if (solved.laneIsSet(lane)) {
+                redWins += tablebaseResults[lane];
+            } else if (Position.isRedWin(getLow(lane), getHigh(lane))) {
+                redWins++;
+            }
+        }
+        return redWins;
+    }
+
+    /**
+     * Ends the lanes whose position is in the tablebase and stores their results.
+     *
+     * @return the lanes that were ended
+     */
+    private VectorMask<Integer> probeTablebase(VectorMask<Integer> active) {
+        IntVector onBoard = IntVector.broadcast(SPECIES, Position.TOTAL_BEANS)
+                .sub(IntVector.fromArray(SPECIES, scoreRed, 0))
+                .sub(IntVector.fromArray(SPECIES, scoreBlue, 0));
+        VectorMask<Integer> probed = onBoard.compare(VectorOperators.LE, tablebase.getMaxBeans()).and(active);
+        for (long lanes = probed.toLong(); lanes != 0; lanes &= lanes - 1) {
+            int lane = Long.numberOfTrailingZeros(lanes);
+            tablebaseResults[lane] = tablebase.isRedWin(getLow(lane), getHigh(lane)) ? 1 : 0;
+        }
+        return probed;
+    }
+
+    /**
+     * Plays one move in every active lane, a random one if {@code actions} is null.
+     *
+     * @param active the lanes whose game goes on
+     * @param actions the action of each lane, or null
+     * @return the lanes whose game went on, i.e., the active ones in which the player to move had a legal action
+     */
+    VectorMask<Integer> step(VectorMask<Integer> active, int[] actions) {
+        IntVector zero = IntVector.zero(SPECIES);
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        VectorMask<Integer> red = IntVector.fromArray(SPECIES, redToMove, 0).compare(VectorOperators.NE, 0);
+        // The first pit of the player to move
+        IntVector base = IntVector.broadcast(SPECIES, 6).blend(zero, red);
+
+        // The number of legal actions, the player to move has no beans left if it is 0
+        IntVector count = zero;
+        for (int j = 0; j < 6; j++) {
+            IntVector own = IntVector.fromArray(SPECIES, pits, (j + 6) * LANES)
+                    .blend(IntVector.fromArray(SPECIES, pits, j * LANES), red);
+            count = count.add(one, own.compare(VectorOperators.NE, 0));
+        }
+        active = active.and(count.compare(VectorOperators.NE, 0));
+        if (!active.anyTrue()) {
+            return active;
+        }
+
+        IntVector action;
+        IntVector beans = zero;
+        if (actions == null) {
+            // A uniform choice among the legal actions: the index of the chosen one among the non-empty pits
+            IntVector seed = IntVector.fromArray(SPECIES, seeds, 0);
+            seed = seed.lanewise(VectorOperators.XOR, seed.lanewise(VectorOperators.LSHL, 13));
+            seed = seed.lanewise(VectorOperators.XOR, seed.lanewise(VectorOperators.LSHR, 17));
+            seed = seed.lanewise(VectorOperators.XOR, seed.lanewise(VectorOperators.LSHL, 5));
+            seed.intoArray(seeds, 0);
+            IntVector chosen = seed.lanewise(VectorOperators.LSHR, 8).mul(count).lanewise(VectorOperators.LSHR, 24);
+
+            action = zero;
+            IntVector seen = zero;
+            for (int j = 0; j < 6; j++) {
+                IntVector own = IntVector.fromArray(SPECIES, pits, (j + 6) * LANES)
+                        .blend(IntVector.fromArray(SPECIES, pits, j * LANES), red);
+                VectorMask<Integer> nonEmpty = own.compare(VectorOperators.NE, 0);
+                VectorMask<Integer> pick = nonEmpty.and(seen.compare(VectorOperators.EQ, chosen));
+                action = action.blend(base.add(j), pick);
+                beans = beans.blend(own, pick);
+                seen = seen.add(one, nonEmpty);
+            }
+        } else {
+            action = IntVector.fromArray(SPECIES, actions, 0);
+            for (int p = 0; p < PITS; p++) {
+                beans = beans.blend(IntVector.fromArray(SPECIES, pits, p * LANES), action.compare(VectorOperators.EQ, p));
+            }
+        }
+
+        // beans / 12 for at most 72 beans, a vector division is not intrinsified
+        IntVector laps = beans.mul(2731).lanewise(VectorOperators.LSHR, 15);
+        IntVector rest = beans.sub(laps.mul(PITS));
+        IntVector last = action.add(rest);
+        last = last.sub(PITS, last.compare(VectorOperators.GE, PITS));
+
+        // Sow: every full lap adds a bean to each pit including the emptied one, the rest to the pits following it
+        for (int p = 0; p < PITS; p++) {
+            IntVector pit = IntVector.fromArray(SPECIES, pits, p * LANES);
+            IntVector distance = action.neg().add(p);
+            distance = distance.add(PITS, distance.compare(VectorOperators.LT, 0));
+            VectorMask<Integer> sown = distance.compare(VectorOperators.GT, 0).and(distance.compare(VectorOperators.LE, rest));
+            IntVector sowed = pit.blend(zero, action.compare(VectorOperators.EQ, p)).add(laps).add(one, sown);
+            pit.blend(sowed, active).intoArray(pits, p * LANES);
+        }
+
+        // Capture backwards from the last pit as long as the pits hold 2, 4 or 6 beans
+        IntVector captured = zero;
+        VectorMask<Integer> chain = active;
+        while (chain.anyTrue()) {
+            VectorMask<Integer> next = SPECIES.maskAll(false);
+            for (int p = 0; p < PITS; p++) {
+                VectorMask<Integer> here = chain.and(last.compare(VectorOperators.EQ, p));
+                IntVector pit = IntVector.fromArray(SPECIES, pits, p * LANES);
+                VectorMask<Integer> capture = here.and(pit.compare(VectorOperators.EQ, 2)
+                        .or(pit.compare(VectorOperators.EQ, 4))
+                        .or(pit.compare(VectorOperators.EQ, 6)));
+                captured = captured.add(pit, capture);
+                pit.blend(zero, capture).intoArray(pits, p * LANES);
+                next = next.or(capture);
+            }
+            chain = next;
+            last = last.sub(1);
+            last = last.add(PITS, last.compare(VectorOperators.LT, 0));
+        }
+
+        IntVector.fromArray(SPECIES, scoreRed, 0).add(captured, red).intoArray(scoreRed, 0);
+        IntVector.fromArray(SPECIES, scoreBlue, 0).add(captured, red.not()).intoArray(scoreBlue, 0);
+        IntVector side = IntVector.fromArray(SPECIES, redToMove, 0);
+        side.blend(one.sub(side), active).intoArray(redToMove, 0);
+        return active;
+    }
+
+    /**
+     * Sets the position of a lane.
+     */
+    void set(int lane, long low, long high) {
+        Position.unpack(low, high, board);
+        for (int p = 0; p < PITS; p++) {
+            pits[p * LANES + lane] = board[p];
+        }
+        scoreRed[lane] = Position.scoreRed(high);
+        scoreBlue[lane] = Position.scoreBlue(high);
+        redToMove[lane] = Position.isRedToMove(high) ? 1 : 0;
+    }
+
+    /**
+     * Returns the low word of the position of a lane.
+     */
+    long getLow(int lane) {
+        for (int p = 0; p < PITS; p++) {
+            board[p] = pits[p * LANES + lane];
+        }
+        return Position.packLow(board);
+    }
+
+    /**
+     * Returns the high word of the position of a lane.
+     */
+    long getHigh(int lane) {
+        for (int p = 0; p < PITS; p++) {
+            board[p] = pits[p * LANES + lane];
+        }
+        return Position.packHigh(board, scoreRed[lane], scoreBlue[lane], redToMove[lane] != 0);
+    }
+
+    /**
+     * Main method of the check.
+     * @param args optionally the number of random positions to compare
+     */
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        FastRandom random = new FastRandom(1);
+        VectorPlayout vector = new VectorPlayout(random);
+        Playout scalar = new Playout(new FastRandom(2));
+        System.out.println("Lanes: " + LANES);
+
+        // Random positions from random games, every lane plays a random legal action
+        long[] lows = new long[LANES];
+        long[] highs = new long[LANES];
+        int[] actions = new int[LANES];
+        long[] expected = new long[2];
+        long mismatches = 0;
+        for (int lane = 0; lane < LANES; lane++) {
+            lows[lane] = Position.INITIAL_LOW;
+            highs[lane] = Position.INITIAL_HIGH;
+        }
+        for (int checked = 0; checked < positions; checked += LANES) {
+            for (int lane = 0; lane < LANES; lane++) {
+                if (Position.legalMoveMask(lows[lane], highs[lane]) == 0) {
+                    lows[lane] = Position.INITIAL_LOW;
+                    highs[lane] = Position.INITIAL_HIGH;
+                }
+                actions[lane] = random.nextSetBit(Position.legalMoveMask(lows[lane], highs[lane]));
+                vector.set(lane, lows[lane], highs[lane]);
+            }
+            vector.step(SPECIES.maskAll(true), actions);
+            for (int lane = 0; lane < LANES; lane++) {
+                Position.applyAction(lows[lane], highs[lane], actions[lane], expected, 0);
+                if (vector.getLow(lane) != expected[0] || vector.getHigh(lane) != expected[1]) {
+                    mismatches++;
+                }
+                lows[lane] = expected[0];
+                highs[lane] = expected[1];
+            }
+        }
+        System.out.println("Verglichene Züge: " + positions + ", Abweichungen: " + mismatches);
+
+        // Share of red wins and playouts per second of both kernels from the initial position
+        for (int round = 0; round < 5; round++) {
+            int games = 0;
+            int redWins = 0;
+            long start = System.nanoTime();
+            while (games < 400_000) {
+                redWins += scalar.run(Position.INITIAL_LOW, Position.INITIAL_HIGH, Arguments.MAX_SIMULATION_DEPTH) ? 1 : 0;
+                games++;
+            }
+            double scalarSeconds = (System.nanoTime() - start) / 1e9;
+            double scalarShare = (double) redWins / games;
+
+            games = 0;
+            redWins = 0;
+            start = System.nanoTime();
+            while (games < 400_000) {
+                redWins += vector.run(Position.INITIAL_LOW, Position.INITIAL_HIGH, Arguments.MAX_SIMULATION_DEPTH);
+                games += LANES;
+            }
+            double vectorSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Skalar: %.0f Playouts/s (Rot %.3f), Vektor: %.0f Playouts/s (Rot %.3f)%n",
+                    400_000 / scalarSeconds, scalarShare, games / vectorSeconds, (double) redWins / games);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package bohnenspiel;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Warmup class runs short searches on synthetic positions before the first game, so that the hot paths of the
+ * search ({@link Position#applyAction(long, long, int, long[], int)}, {@link Node#select()}, {@link Playout} and the
+ * network if there is one) are compiled by C2 before the first real move. The searches use the mode and threads of
+ * {@link Arguments}, so the code that runs later is the code that is warmed up.
+ *
+ * The warm-up runs rounds of {@link #ROUND_MILLIS}. Every other round searches the initial position for the whole
+ * round and measures its iterations per second; the initial position is never proven, so these rounds compare. The
+ * rounds between search positions of later game phases, which cover their code paths but are not measured, because
+ * a proven endgame root ends its search after a few iterations. The warm-up ends when the last
+ * {@link #PLATEAU_ROUNDS} measured rounds differ by less than {@link #PLATEAU} or the budget is used up. The report
+ * gives the time from the start of the JVM until the throughput first came within {@link #PEAK_SHARE} of the peak.
+ *
+ * Run on its own, the warm-up loads the classes of a game, which makes it suitable for creating a class data sharing
+ * archive: {@code java -XX:ArchiveClassesAtExit=bohnenspiel.jsa -cp <jar> bohnenspiel.Warmup [millis]}
+ */
+public final class Warmup {
+    static final int ROUND_MILLIS = 100;
+    static final int PLATEAU_ROUNDS = 3;
+    static final double PLATEAU = 0.05;
+    static final double PEAK_SHARE = 0.9;
+    // Random moves from the initial position to the positions of the unmeasured rounds, cycling through the game phases
+    private static final int[] PLIES = {10, 25, 40, 60};
+
+    private Warmup() {
+    }
+
+    /**
+     * Main method of the warm-up, e.g., to create a class data sharing archive.
+     * @param args optionally the budget in milliseconds, {@link Arguments#WARMUP_MILLIS} otherwise
+     */
+    public static void main(String[] args) {
+        // Loads the HTTP client of the games, so that its classes end up in the archive as well
+        System.out.println("HTTP-Client: " + Main.client.version());
+        run(args.length > 0 ? Integer.parseInt(args[0]) : Arguments.WARMUP_MILLIS).print(System.out);
+    }
+
+    /**
+     * Warms up the search until the throughput levels off or the budget is used up.
+     *
+     * @param millis the budget in milliseconds
+     * @return the throughput of each measured round
+     */
+    public static Report run(int millis) {
+        long start = System.nanoTime();
+        long end = start + millis * 1_000_000L;
+        Report report = new Report(ManagementFactory.getRuntimeMXBean().getUptime());
+        FastRandom random = FastRandom.current();
+        random.setSeed(start);
+        for (int round = 0; System.nanoTime() + ROUND_MILLIS * 1_000_000L <= end && !report.hasPlateau(); round++) {
+            boolean measured = round % 2 == 0;
+            State state = measured ? new State() : randomPosition(random, PLIES[round / 2 % PLIES.length]);
+            TranspositionTable table = Arguments.TRANSPOSITION_TABLE_SIZE > 0
+                    ? new TranspositionTable(Arguments.TRANSPOSITION_TABLE_SIZE, Arguments.TRANSPOSITION_REPLACEMENT)
+                    : null;
+            SearchTree tree = new SearchTree(state, table, Arguments.MAX_TREE_NODES);
+            long roundStart = System.nanoTime();
+            // An unmeasured round may stop early like a real move
+            Node root = MCTS.search(tree, measured ? wholeRound() : TimeManager.fixed(ROUND_MILLIS));
+            MCTS.getBestActionFromFinishedSimulationRootNode(root);
+            long roundEnd = System.nanoTime();
+            if (measured) {
+                report.add(root.getVisitCount() / ((roundEnd - roundStart) / 1e9), (roundEnd - start) / 1e6);
+            }
+        }
+        return report;
+    }
+
+    // Searches for the whole round, unlike a fixed time manager, which stops once the best move is clear
+    private static TimeManager wholeRound() {
+        return new TimeManager(ROUND_MILLIS, ROUND_MILLIS) {
+            @Override
+            public boolean shouldStop(int bestVisits, int secondVisits, int iterations, boolean forced) {
+                return getElapsedMillis() >= ROUND_MILLIS;
+            }
+        };
+    }
+
+    // Plays random moves from the initial position, fewer if the game ends before
+    private static State randomPosition(FastRandom random, int plies) {
+        State state = new State();
+        for (int i = 0; i < plies; i++) {
+            int legal = state.getLegalMoveMask();
+            State next = legal == 0 ? null : state.applyAction(random.nextSetBit(legal));
+            if (next == null || next.isTerminal()) {
+                break;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    /**
+     * The Report class holds the iterations per second of the measured warm-up rounds.
+     */
+    public static final class Report {
+        private final long startUptimeMillis;
+        private final List<double[]> rounds = new ArrayList<>();
+
+        Report(long startUptimeMillis) {
+            this.startUptimeMillis = startUptimeMillis;
+        }
+
+        void add(double iterationsPerSecond, double elapsedMillis) {
+            rounds.add(new double[]{iterationsPerSecond, elapsedMillis});
+        }
+
+        boolean hasPlateau() {
+            if (rounds.size() < PLATEAU_ROUNDS) {
+                return false;
+            }
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            for (int i = rounds.size() - PLATEAU_ROUNDS; i < rounds.size(); i++) {
+                min = Math.min(min, rounds.get(i)[0]);
+                max = Math.max(max, rounds.get(i)[0]);
+            }
+            return max - min < PLATEAU * max;
+        }
+
+        /**
+         * Returns the highest iterations per second of a round.
+         */
+        public double getPeak() {
+            double peak = 0;
+            for (double[] round : rounds) {
+                peak = Math.max(peak, round[0]);
+            }
+            return peak;
+        }
+
+        /**
+         * Returns the milliseconds from the start of the JVM until the end of the first round within
+         * {@link #PEAK_SHARE} of the peak, or -1 if there was no round.
+         */
+        public double getMillisToPeak() {
+            double peak = getPeak();
+            for (double[] round : rounds) {
+                if (round[0] >= PEAK_SHARE * peak) {
+                    return startUptimeMillis + round[1];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Prints the report.
+         */
+        public void print(PrintStream out) {
+            if (rounds.isEmpty()) {
+                out.println("Aufwärmen: keine gemessene Runde");
+                return;
+            }
+            double[] last = rounds.get(rounds.size() - 1);
+            out.printf("Aufwärmen: %d gemessene Runden in %.0f ms, %.0f -> %.0f Iterationen/s, 90%% des Maximums %.0f ms nach dem Start der JVM%n",
+                    rounds.size(), last[1], rounds.get(0)[0], getPeak(), getMillisToPeak());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package bohnenspiel;
+
+/**
+ * The Zobrist class computes Zobrist hashes of packed positions, see {@link Position}.
+ * The hash combines one random key per pit and bean count, per score of each player and for the side to move.
+ */
+public final class Zobrist {
+    private static final long[] PIT_KEYS = new long[Position.PITS * (Position.TOTAL_BEANS + 1)];
+    private static final long[] RED_SCORE_KEYS = new long[Position.TOTAL_BEANS + 1];
+    private static final long[] BLUE_SCORE_KEYS = new long[Position.TOTAL_BEANS + 1];
+    private static final long RED_TO_MOVE_KEY;
+
+    static {
+        // Fixed seed, so that hashes written to files stay valid between runs
+        FastRandom random = new FastRandom(0x5A0B815AL);
+        for (int i = 0; i < PIT_KEYS.length; i++) {
+            PIT_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i <= Position.TOTAL_BEANS; i++) {
+            RED_SCORE_KEYS[i] = random.nextLong();
+            BLUE_SCORE_KEYS[i] = random.nextLong();
+        }
+        RED_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the Zobrist hash of a packed position.
+     *
+     * @param low the low word of the position
+     * @param high the high word of the position
+     * @return the hash
+     */
+    public static long hash(long low, long high) {
+        long hash = RED_SCORE_KEYS[Position.scoreRed(high)] ^ BLUE_SCORE_KEYS[Position.scoreBlue(high)];
+        if (Position.isRedToMove(high)) {
+            hash ^= RED_TO_MOVE_KEY;
+        }
+        for (int i = 0; i < Position.PITS; i++) {
+            hash ^= PIT_KEYS[i * (Position.TOTAL_BEANS + 1) + Position.pit(low, high, i)];
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the Zobrist hash of a state.
+     */
+    public static long hash(State state) {
+        return hash(state.getLow(), state.getHigh());
+    }
+}
@@ -0,0 +1,36 @@
+package bohnenspiel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pins the perft counts of the initial position, so that a change of the move generation or of the rules shows up.
+ */
+class PerftTest {
+    // The number of move sequences of length 1 to 6 from the initial position
+    private static final long[] COUNTS = {6, 36, 206, 1166, 6599, 36654};
+
+    @Test
+    void countsFromInitialPosition() {
+        State state = new State();
+        for (int depth = 1; depth <= COUNTS.length; depth++) {
+            assertEquals(COUNTS[depth - 1], Perft.count(state.getLow(), state.getHigh(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    void forkJoinCountMatchesSequentialCount() {
+        State state = new State();
+        // Deeper than Perft.SEQUENTIAL_DEPTH, so that subtrees are forked
+        int depth = 9;
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(Perft.count(state.getLow(), state.getHigh(), depth),
+                    Perft.count(pool, state.getLow(), state.getHigh(), depth));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import struct
+import sys
+from types import SimpleNamespace
+
+import torch
+from architecture_model import ResNet
+
+# "BSNN" in ASCII and the file version, see Network.java
+MAGIC = 0x42534E4E
+VERSION = 1
+
+# The board as seen by the Java engine: 2 rows of 6 pits and one action per pit of the player to move
+BOARD = SimpleNamespace(row_count=2, column_count=6, action_size=6)
+
+
+def fold(conv, bn):
+    """
+    Folds a batch normalization into the convolution before it.
+
+    Args:
+        conv (nn.Conv2d): The convolution.
+        bn (nn.BatchNorm2d): The batch normalization in evaluation mode.
+
+    Returns:
+        tuple: The weights and biases of the folded convolution.
+    """
+    scale = bn.weight / torch.sqrt(bn.running_var + bn.eps)
+    weight = conv.weight * scale.reshape(-1, 1, 1, 1)
+    bias = (conv.bias - bn.running_mean) * scale + bn.bias
+    return weight, bias
+
+
+def write_tensors(file, *tensors):
+    """
+    Writes tensors as big-endian floats in their PyTorch order.
+
+    Args:
+        file: The binary file to write to.
+        tensors (torch.Tensor): The tensors to write.
+    """
+    for tensor in tensors:
+        values = tensor.detach().cpu().flatten().tolist()
+        file.write(struct.pack('>%df' % len(values), *values))
+
+
+def export(model, path):
+    """
+    Writes the weights of a model in the format read by Network.java.
+
+    Args:
+        model (ResNet): The model, trained on the board of the Java engine.
+        path (str): The file to write.
+    """
+    model.eval()
+    with torch.no_grad(), open(path, 'wb') as file:
+        hidden = model.startBlock[0].out_channels
+        file.write(struct.pack('>4i', MAGIC, VERSION, len(model.backBone), hidden))
+        write_tensors(file, *fold(model.startBlock[0], model.startBlock[1]))
+        for resBlock in model.backBone:
+            write_tensors(file, *fold(resBlock.conv1, resBlock.bn1))
+            write_tensors(file, *fold(resBlock.conv2, resBlock.bn2))
+        write_tensors(file, *fold(model.policyHead[0], model.policyHead[1]))
+        write_tensors(file, model.policyHead[4].weight, model.policyHead[4].bias)
+        write_tensors(file, *fold(model.valueHead[0], model.valueHead[1]))
+        write_tensors(file, model.valueHead[4].weight, model.valueHead[4].bias)
+
+
+if __name__ == '__main__':
+    # Usage: python export.py <model.pt> <network.bin>
+    state_dict = torch.load(sys.argv[1], map_location='cpu')
+    num_resBlocks = len({key.split('.')[1] for key in state_dict if key.startswith('backBone.')})
+    num_hidden = state_dict['startBlock.0.weight'].shape[0]
+    model = ResNet(BOARD, num_resBlocks, num_hidden, torch.device('cpu'))
+    model.load_state_dict(state_dict)
+    export(model, sys.argv[2])
@@ -1,3 +1,4 @@
+import glob
 import numpy as np
 import random
 import torch
@@ -120,3 +121,72 @@ class Train:
 
         torch.save(self.model.state_dict(), f"Models/model.pt")
         torch.save(self.optimizer.state_dict(), f"Models/optimizer.pt")
+
+    def train_arrays(self, states, policy_targets, value_targets):
+        """
+        Trains the model on arrays of samples, e.g., those of load_selfplay, in shuffled batches.
+
+        Args:
+            states (np.ndarray): The encoded states.
+            policy_targets (np.ndarray): The action probabilities.
+            value_targets (np.ndarray): The outcomes for the player to move.
+        """
+        order = np.random.permutation(len(states))
+        for batchIdx in range(0, len(order), self.args['batch_size']):
+            sample = np.sort(order[batchIdx:batchIdx + self.args['batch_size']])
+
+            state = torch.tensor(states[sample], dtype=torch.float32, device=self.model.device)
+            policy = torch.tensor(policy_targets[sample], dtype=torch.float32, device=self.model.device)
+            value = torch.tensor(value_targets[sample], dtype=torch.float32, device=self.model.device).reshape(-1, 1)
+
+            out_policy, out_value = self.model(state)
+
+            loss = F.cross_entropy(out_policy, policy) + F.mse_loss(out_value, value)
+
+            self.optimizer.zero_grad()
+            loss.backward()
+            self.optimizer.step()
+
+    def learn_from_selfplay(self, pattern):
+        """
+        Trains the model on the self-play data of the Java engine instead of generating it with the Python MCTS.
+
+        Args:
+            pattern (str): The glob pattern of the chunks, e.g., "selfplay/*.npy".
+        """
+        states, policy_targets, value_targets = load_selfplay(pattern)
+        self.model.train()
+        for epoch in trange(self.args['num_epochs']):
+            self.train_arrays(states, policy_targets, value_targets)
+
+        torch.save(self.model.state_dict(), f"Models/model.pt")
+        torch.save(self.optimizer.state_dict(), f"Models/optimizer.pt")
+
+
+def load_selfplay(pattern):
+    """
+    Loads the chunks written by the Java self-play (SelfPlay.java) and encodes the positions like Network.java: the
+    pits as seen by the player to move in 2 rows of 6 cells, then the score of the player and of the opponent in
+    every cell. The chunks are memory-mapped, only the encoded states are held in memory.
+
+    Args:
+        pattern (str): The glob pattern of the chunks.
+
+    Returns:
+        tuple: The encoded states (N, 3, 2, 6), the action probabilities (N, 6) and the outcomes (N,).
+    """
+    chunks = [np.load(path, mmap_mode='r') for path in sorted(glob.glob(pattern))]
+    count = sum(len(chunk) for chunk in chunks)
+    states = np.empty((count, 3, 2, 6), dtype=np.float32)
+    policy_targets = np.empty((count, 6), dtype=np.float32)
+    value_targets = np.empty(count, dtype=np.float32)
+    start = 0
+    for chunk in chunks:
+        end = start + len(chunk)
+        states[start:end, 0] = chunk['board'] / 12
+        states[start:end, 1] = (chunk['scores'][:, 0] / 36)[:, None, None]
+        states[start:end, 2] = (chunk['scores'][:, 1] / 36)[:, None, None]
+        policy_targets[start:end] = chunk['policy']
+        value_targets[start:end] = chunk['value']
+        start = end
+    return states, policy_targets, value_targets